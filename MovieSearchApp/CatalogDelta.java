@@ -0,0 +1,147 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class describes how a catalog of movies has changed between two loads: the movies that
+ * were added, the movies that were removed, and the movies whose rating, genre, or other data
+ * changed while they kept their identity (their title and year). A change may also hand the
+ * place of a movie within the tree over to a movie of another file with the same rating and
+ * title, once the file providing it drops it.
+ */
+public class CatalogDelta {
+    private final List<MovieData> added = new ArrayList<MovieData>();
+    private final List<MovieData> removed = new ArrayList<MovieData>();
+    private final List<Change> changed = new ArrayList<Change>();
+
+    /**
+     * A movie whose data changed between two loads
+     */
+    public static class Change {
+        private final MovieData oldMovie;
+        private final MovieData newMovie;
+
+        private Change(MovieData oldMovie, MovieData newMovie) {
+            this.oldMovie = oldMovie;
+            this.newMovie = newMovie;
+        }
+
+        /**
+         * This method returns the movie as it was loaded before
+         *
+         * @return the movie as it was loaded before
+         */
+        public MovieData getOldMovie() {
+            return oldMovie;
+        }
+
+        /**
+         * This method returns the movie as it is loaded now
+         *
+         * @return the movie as it is loaded now
+         */
+        public MovieData getNewMovie() {
+            return newMovie;
+        }
+    }
+
+    /**
+     * This method records a movie that was added
+     *
+     * @param movie - the added movie
+     */
+    void addAdded(MovieData movie) {
+        added.add(movie);
+    }
+
+    /**
+     * This method records a movie that was removed
+     *
+     * @param movie - the removed movie
+     */
+    void addRemoved(MovieData movie) {
+        removed.add(movie);
+    }
+
+    /**
+     * This method records a movie whose data changed
+     *
+     * @param oldMovie - the movie as it was loaded before
+     * @param newMovie - the movie as it is loaded now
+     */
+    void addChanged(MovieData oldMovie, MovieData newMovie) {
+        changed.add(new Change(oldMovie, newMovie));
+    }
+
+    /**
+     * This method adds all changes of the passed delta to this delta
+     *
+     * @param other - the delta whose changes are added
+     */
+    void addAll(CatalogDelta other) {
+        added.addAll(other.added);
+        removed.addAll(other.removed);
+        changed.addAll(other.changed);
+    }
+
+    /**
+     * This method returns the movies that were added
+     *
+     * @return the movies that were added
+     */
+    public List<MovieData> getAdded() {
+        return Collections.unmodifiableList(added);
+    }
+
+    /**
+     * This method returns the movies that were removed
+     *
+     * @return the movies that were removed
+     */
+    public List<MovieData> getRemoved() {
+        return Collections.unmodifiableList(removed);
+    }
+
+    /**
+     * This method returns the movies whose data changed
+     *
+     * @return the movies whose data changed
+     */
+    public List<Change> getChanged() {
+        return Collections.unmodifiableList(changed);
+    }
+
+    /**
+     * This method checks whether the catalog did not change at all
+     *
+     * @return true if no movie was added, removed, or changed, false otherwise
+     */
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+    }
+
+    /**
+     * This method applies the changes to a tree holding the movies of the previous load, in
+     * O(k log n) for k changes. Removals are applied first, so that a movie moving from one file
+     * to another is not rejected as a duplicate. Movies that the tree already holds are not
+     * inserted again.
+     *
+     * @param tree - the tree to be updated
+     */
+    public void applyTo(RedBlackTree<MovieData> tree) {
+        for (MovieData movie : removed) {
+            tree.remove(movie);
+        }
+        for (Change change : changed) {
+            if (!tree.update(change.oldMovie, change.newMovie)
+                    && !tree.contains(change.newMovie)) {
+                tree.insert(change.newMovie);
+            }
+        }
+        for (MovieData movie : added) {
+            if (!tree.contains(movie)) {
+                tree.insert(movie);
+            }
+        }
+    }
+}
@@ -0,0 +1,394 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * This class reads and writes binary snapshots of a loaded catalog, so that a process can start
+ * from the movies it loaded before instead of parsing the CSV file(s) again. A snapshot holds the
+ * movies in the order of a RedBlackTree together with a description of the CSV files they were
+ * loaded from, and is read by memory-mapping it: building the tree from it takes O(n) without any
+ * parsing or sorting.
+ *
+ * A snapshot consists of
+ *   - the magic number "MSNP" and the format version,
+ *   - the number of source files, and for every source file its absolute path, last modification
+ *     time, size, and CRC32 checksum,
+ *   - the number of genres and every genre,
+ *   - the number of movies, and for every movie in ascending order its rating, year, genre id,
+ *     and title,
+ *   - the CRC32 checksum of all bytes before it.
+ * Strings are stored as their length followed by their UTF-8 bytes, and all numbers are big
+ * endian. A snapshot is stale as soon as the set of source files changes or one of them differs in
+ * size or content. A source file whose modification time and size are unchanged is taken to be
+ * unchanged, so checking an up-to-date snapshot does not read the CSV files; only a file whose
+ * modification time changed while its size did not is read to compare its checksum.
+ */
+public class CatalogSnapshot {
+
+    private static final int MAGIC = 0x4D534E50; // "MSNP"
+    /** the version of the snapshot format written by this class */
+    public static final int VERSION = 1;
+
+    private CatalogSnapshot() {
+    }
+
+    /**
+     * This method returns the catalog of the passed CSV file or directory, read from the passed
+     * snapshot if it is up to date. Otherwise the catalog is loaded with the passed loader and
+     * written to the snapshot, so that the next call can read it from there.
+     *
+     * @param sourcePath - path to a CSV file or to a directory containing CSV file(s)
+     * @param snapshotPath - path of the snapshot file
+     * @param loader - the loader reading the CSV file(s) when the snapshot is stale
+     * @param duplicatePolicy - decides which movie is kept when two movies have the same rating
+     *                          and title
+     * @return a RedBlackTree holding the movies of the catalog
+     * @throws FileNotFoundException if the CSV file or directory does not exist, or one of the
+     *                               CSV files disappears while it is loaded
+     * @throws IllegalArgumentException if one of the CSV files lacks a column of a movie, in
+     *                                  which case no snapshot is written
+     * @throws IOException if the snapshot cannot be written
+     */
+    public static RedBlackTree<MovieData> load(String sourcePath, String snapshotPath,
+            MovieLoader loader, RedBlackTree.DuplicatePolicy duplicatePolicy) throws IOException {
+        List<File> sources = sourceFiles(sourcePath);
+        if (new File(snapshotPath).isFile()) {
+            try {
+                RedBlackTree<MovieData> tree = read(snapshotPath, sources);
+                if (tree != null) {
+                    return tree;
+                }
+            } catch (IOException e) {
+                // a damaged snapshot is replaced just like a stale one
+            }
+        }
+        // the files are described before they are read, so that a file changing while it is
+        // loaded leaves the snapshot stale instead of describing content it does not hold
+        List<SourceFile> sourceFingerprints = fingerprintsOf(sources);
+        RedBlackTree<MovieData> tree;
+        if (new File(sourcePath).isDirectory()) {
+            // fails if any of the files fails, so a snapshot never misses the movies of a file
+            tree = loader.loadTree(sourcePath, duplicatePolicy);
+        } else {
+            tree = MovieData.buildTree(loader.loadFile(sourcePath), duplicatePolicy);
+        }
+        write(snapshotPath, tree, sourceFingerprints);
+        return tree;
+    }
+
+    /**
+     * This class describes a source file of a snapshot: its absolute path, last modification
+     * time, size, and the CRC32 checksum of its content
+     */
+    public static class SourceFile {
+        private final String path;
+        private final long lastModified;
+        private final long length;
+        private final long checksum;
+
+        private SourceFile(String path, long lastModified, long length, long checksum) {
+            this.path = path;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.checksum = checksum;
+        }
+
+        /**
+         * This method returns the absolute path of the file
+         *
+         * @return the absolute path of the file
+         */
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * This method returns the last modification time of the file
+         *
+         * @return the last modification time in milliseconds since the epoch
+         */
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * This method returns the size of the file
+         *
+         * @return the size of the file in bytes
+         */
+        public long getLength() {
+            return length;
+        }
+
+        /**
+         * This method returns the CRC32 checksum of the file's content
+         *
+         * @return the checksum of the file
+         */
+        public long getChecksum() {
+            return checksum;
+        }
+    }
+
+    /**
+     * This method describes the passed files as they are now, which has to be done before the
+     * movies of a snapshot are loaded from them
+     *
+     * @param sources - the CSV files the movies are loaded from
+     * @return the description of every file, in the same order
+     * @throws IOException if a file cannot be read
+     */
+    public static List<SourceFile> fingerprintsOf(List<File> sources) throws IOException {
+        List<SourceFile> fingerprints = new ArrayList<SourceFile>(sources.size());
+        for (File source : sources) {
+            // the time and size are taken first, so a change during the checksum is noticed
+            long lastModified = source.lastModified();
+            long length = source.length();
+            fingerprints.add(new SourceFile(source.getAbsolutePath(), lastModified, length,
+                    checksumOf(source)));
+        }
+        return fingerprints;
+    }
+
+    /**
+     * This method writes a snapshot of the passed tree. The snapshot is written to a temporary
+     * file first which then replaces the snapshot file, so that readers never see a partly
+     * written snapshot.
+     *
+     * @param snapshotPath - path of the snapshot file
+     * @param tree - the movies to be stored
+     * @param sources - the CSV files the movies were loaded from, as returned by fingerprintsOf
+     *                  before the movies were loaded
+     * @throws IOException if the snapshot cannot be written
+     */
+    public static void write(String snapshotPath, RedBlackTree<MovieData> tree,
+            List<SourceFile> sources) throws IOException {
+        Path snapshot = Paths.get(snapshotPath).toAbsolutePath();
+        Path temporary = Files.createTempFile(snapshot.getParent(), snapshot.getFileName() + ".",
+                ".tmp");
+        try {
+            CRC32 checksum = new CRC32();
+            try (OutputStream file = Files.newOutputStream(temporary)) {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                        new CheckedOutputStream(file, checksum), 1 << 16));
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(sources.size());
+                for (SourceFile source : sources) {
+                    writeString(out, source.getPath());
+                    out.writeLong(source.getLastModified());
+                    out.writeLong(source.getLength());
+                    out.writeLong(source.getChecksum());
+                }
+
+                Map<String, Integer> genreIds = new HashMap<String, Integer>();
+                List<String> genres = new ArrayList<String>();
+                for (MovieData movie : tree) {
+                    if (!genreIds.containsKey(movie.getGenre())) {
+                        genreIds.put(movie.getGenre(), genres.size());
+                        genres.add(movie.getGenre());
+                    }
+                }
+                out.writeInt(genres.size());
+                for (String genre : genres) {
+                    writeString(out, genre);
+                }
+                out.writeInt(tree.size());
+                for (MovieData movie : tree) {
+                    out.writeDouble(movie.getRating());
+                    out.writeInt(movie.getYear());
+                    out.writeInt(genreIds.get(movie.getGenre()));
+                    writeString(out, movie.getTitle());
+                }
+                out.flush();
+                // the checksum covers everything before it, so it is written unchecked
+                new DataOutputStream(file).writeLong(checksum.getValue());
+            }
+            Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * This method reads the movies of a snapshot into a RedBlackTree if the snapshot was written
+     * from the passed source files and none of them has changed since
+     *
+     * @param snapshotPath - path of the snapshot file
+     * @param sources - the CSV files the catalog is loaded from now
+     * @return a RedBlackTree holding the movies of the snapshot, or null if the snapshot is stale
+     * @throws IOException if the snapshot cannot be read, was written in another version of the
+     *                     format, or is damaged
+     */
+    public static RedBlackTree<MovieData> read(String snapshotPath, List<File> sources)
+            throws IOException {
+        ByteBuffer snapshot = map(snapshotPath);
+        if (!isUpToDate(snapshot, sources)) {
+            return null;
+        }
+        int genreCount = snapshot.getInt();
+        String[] genres = new String[genreCount];
+        for (int i = 0; i < genreCount; ++i) {
+            genres[i] = readString(snapshot);
+        }
+        int movieCount = snapshot.getInt();
+        List<MovieData> movies = new ArrayList<MovieData>(movieCount);
+        for (int i = 0; i < movieCount; ++i) {
+            double rating = snapshot.getDouble();
+            int year = snapshot.getInt();
+            String genre = genres[snapshot.getInt()];
+            movies.add(new MovieData(readString(snapshot), rating, year, genre));
+        }
+        // the movies were written in tree order, so the tree is built without sorting them
+        return new RedBlackTree<MovieData>(movies, RedBlackTree.DuplicatePolicy.REJECT, true);
+    }
+
+    /**
+     * This method checks whether a snapshot was written from the passed source files and none
+     * of them has changed since
+     *
+     * @param snapshotPath - path of the snapshot file
+     * @param sources - the CSV files the catalog is loaded from now
+     * @return true if the snapshot is up to date, false otherwise
+     * @throws IOException if the snapshot cannot be read, was written in another version of the
+     *                     format, or is damaged
+     */
+    public static boolean isUpToDate(String snapshotPath, List<File> sources) throws IOException {
+        return isUpToDate(map(snapshotPath), sources);
+    }
+
+    /**
+     * This method returns the CSV files of a catalog: the passed file itself, or the files
+     * ending in "csv" within the passed directory in the order of their names
+     *
+     * @param sourcePath - path to a CSV file or to a directory containing CSV file(s)
+     * @return the CSV files of the catalog
+     * @throws FileNotFoundException if the CSV file or directory does not exist
+     */
+    public static List<File> sourceFiles(String sourcePath) throws FileNotFoundException {
+        File source = new File(sourcePath);
+        if (source.isFile()) {
+            return Arrays.asList(source);
+        }
+        File[] files = source.listFiles();
+        if (files == null) {
+            throw new FileNotFoundException(sourcePath);
+        }
+        List<File> csvFiles = new ArrayList<File>();
+        for (File file : files) {
+            if (file.getName().endsWith("csv") && file.isFile()) {
+                csvFiles.add(file);
+            }
+        }
+        csvFiles.sort(null);
+        return csvFiles;
+    }
+
+    /**
+     * Helper method that maps a snapshot and checks its magic number, version, and checksum
+     *
+     * @return the snapshot, positioned right after its version
+     */
+    private static ByteBuffer map(String snapshotPath) throws IOException {
+        MappedByteBuffer snapshot;
+        try (FileChannel channel = FileChannel.open(Paths.get(snapshotPath),
+                StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("The snapshot " + snapshotPath + " is too large");
+            }
+            snapshot = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (snapshot.limit() < 2 * Integer.BYTES + Long.BYTES || snapshot.getInt(0) != MAGIC) {
+            throw new IOException(snapshotPath + " is not a snapshot");
+        }
+        if (snapshot.getInt(Integer.BYTES) != VERSION) {
+            throw new IOException("The snapshot " + snapshotPath + " has version "
+                    + snapshot.getInt(Integer.BYTES) + " instead of " + VERSION);
+        }
+        int checksumPosition = snapshot.limit() - Long.BYTES;
+        CRC32 checksum = new CRC32();
+        checksum.update(snapshot.duplicate().limit(checksumPosition));
+        if (checksum.getValue() != snapshot.getLong(checksumPosition)) {
+            throw new IOException("The snapshot " + snapshotPath + " is damaged");
+        }
+        snapshot.position(2 * Integer.BYTES).limit(checksumPosition);
+        return snapshot;
+    }
+
+    /**
+     * Helper method that reads the source files of a snapshot and compares them with the
+     * current source files, leaving the snapshot positioned right after them
+     */
+    private static boolean isUpToDate(ByteBuffer snapshot, List<File> sources)
+            throws IOException {
+        int sourceCount = snapshot.getInt();
+        boolean upToDate = sourceCount == sources.size();
+        for (int i = 0; i < sourceCount; ++i) {
+            String path = readString(snapshot);
+            long lastModified = snapshot.getLong();
+            long length = snapshot.getLong();
+            long contentChecksum = snapshot.getLong();
+            if (upToDate) {
+                File source = sources.get(i);
+                upToDate = path.equals(source.getAbsolutePath()) && length == source.length();
+                // a file is only read when it was touched without changing its size
+                if (upToDate && lastModified != source.lastModified()) {
+                    upToDate = contentChecksum == checksumOf(source);
+                }
+            }
+        }
+        return upToDate;
+    }
+
+    /**
+     * Helper method that computes the CRC32 checksum of a file's content
+     */
+    private static long checksumOf(File file) throws IOException {
+        CRC32 checksum = new CRC32();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                checksum.update(buffer);
+                buffer.clear();
+            }
+        }
+        return checksum.getValue();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer snapshot) throws IOException {
+        int length = snapshot.getInt();
+        if (length < 0 || length > snapshot.remaining()) {
+            throw new IOException("The snapshot contains a string of length " + length);
+        }
+        byte[] bytes = new byte[length];
+        snapshot.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,203 @@
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * This class makes a RedBlackTree safe to share between many reading threads and a writer. The
+ * catalog always holds a frozen tree, which is never modified again and can therefore be read
+ * without any locking. A change is applied to a copy of the current tree, which is frozen and
+ * then published by a single volatile write, so a reader either sees the tree before or after
+ * a change and never a tree in the middle of a rotation.
+ *
+ * Readers call snapshot() once per query and run the whole query against the returned tree,
+ * which stays consistent no matter how many changes are published meanwhile.
+ *
+ * Writers should use update, which applies a whole batch of changes, such as the CatalogDelta
+ * of an IncrementalLoader, to one copy: catalog.update(delta::applyTo). Copying the tree takes
+ * O(n) through the linear-time bulk construction, so insert and remove do not copy the tree
+ * for every value. They collect their changes within a single working copy instead, which is
+ * published by the next read or update, so a run of n single inserts costs one copy and
+ * O(n log n) for the inserts rather than O(n^2).
+ */
+public class ConcurrentCatalog<T extends Comparable<T>> implements SortedCollectionInterface<T> {
+	private volatile RedBlackTree<T> snapshot;
+	private final Object writeLock = new Object(); // serializes the writers
+	private RedBlackTree<T> working = null; // the unpublished changes of insert and remove
+	private volatile boolean dirty = false; // true if working holds unpublished changes
+
+	/**
+	 * Constructor method so as to create an empty ConcurrentCatalog
+	 */
+	public ConcurrentCatalog() {
+		this(new ArrayList<T>(), RedBlackTree.DuplicatePolicy.REJECT);
+	}
+
+	/**
+	 * Constructor method so as to create a ConcurrentCatalog holding the passed values
+	 *
+	 * @param data - the values to be stored within the catalog
+	 * @param duplicatePolicy - decides which value is kept when the list contains equal values
+	 * @throws NullPointerException if the list contains a null reference
+	 * @throws IllegalArgumentException if the list contains equal values and the policy is
+	 *                                  REJECT
+	 */
+	public ConcurrentCatalog(List<? extends T> data, RedBlackTree.DuplicatePolicy duplicatePolicy) {
+		this(new RedBlackTree<T>(data, duplicatePolicy));
+	}
+
+	/**
+	 * Constructor method so as to create a ConcurrentCatalog holding the values of the passed
+	 * tree, such as a tree keeping aggregates of its subtrees. The tree is frozen and becomes
+	 * the first snapshot of the catalog.
+	 *
+	 * @param tree - the tree holding the values of the catalog
+	 */
+	public ConcurrentCatalog(RedBlackTree<T> tree) {
+		tree.freeze();
+		snapshot = tree;
+	}
+
+	/**
+	 * This method returns the current values of the catalog as a frozen tree, which any number
+	 * of threads may read at the same time and which never changes. Changes made through
+	 * insert and remove since the last snapshot are published first.
+	 *
+	 * @return the current snapshot of the catalog
+	 */
+	public RedBlackTree<T> snapshot() {
+		if (dirty) {
+			synchronized (writeLock) {
+				publishWorkingCopy();
+			}
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Helper method that freezes and publishes the working copy of insert and remove, if there
+	 * is one. The caller has to hold the write lock.
+	 */
+	private void publishWorkingCopy() {
+		if (working == null) {
+			return;
+		}
+		working.freeze();
+		// the volatile write publishes the finished tree to every later reader
+		snapshot = working;
+		working = null;
+		dirty = false;
+	}
+
+	/**
+	 * This method applies a batch of changes. The changes are made to a copy of the current
+	 * snapshot, which replaces it once all changes have been made. If the changes throw an
+	 * exception, the copy is dropped and the catalog stays as it was.
+	 *
+	 * @param changes - makes the changes to the passed copy through insert, remove, and update
+	 * @return the new snapshot
+	 */
+	public RedBlackTree<T> update(Consumer<? super RedBlackTree<T>> changes) {
+		synchronized (writeLock) {
+			// the pending single changes are published first, so that a failing batch keeps them
+			publishWorkingCopy();
+			// the copy keeps the aggregates of the current snapshot, if it has any
+			RedBlackTree<T> copy = snapshot.copy();
+			changes.accept(copy);
+			copy.freeze();
+			// the volatile write publishes the finished tree to every later reader
+			snapshot = copy;
+			return copy;
+		}
+	}
+
+	/**
+	 * This method inserts a single value into the working copy of the catalog, which the next
+	 * read or update publishes. Only the first change after a publication copies the tree.
+	 *
+	 * @param data - the value to be inserted
+	 * @return true if the value was inserted
+	 * @throws NullPointerException if data is null
+	 * @throws IllegalArgumentException if the catalog already contains an equal value
+	 */
+	@Override
+	public boolean insert(T data) throws NullPointerException, IllegalArgumentException {
+		synchronized (writeLock) {
+			if (working == null) {
+				// a failing insert neither copies the tree nor publishes a new snapshot
+				if (snapshot.contains(data)) {
+					throw new IllegalArgumentException("This ConcurrentCatalog already contains "
+							+ "that value.");
+				}
+				working = snapshot.copy();
+			}
+			working.insert(data);
+			dirty = true;
+			return true;
+		}
+	}
+
+	/**
+	 * This method removes a single value from the working copy of the catalog, which the next
+	 * read or update publishes. Only the first change after a publication copies the tree.
+	 *
+	 * @param data - the value to be removed
+	 * @return true if the value was removed, false if the catalog did not contain it
+	 * @throws NullPointerException if data is null
+	 */
+	public boolean remove(T data) throws NullPointerException {
+		synchronized (writeLock) {
+			if (working == null) {
+				if (!snapshot.contains(data)) {
+					return false;
+				}
+				working = snapshot.copy();
+			}
+			boolean removed = working.remove(data);
+			dirty = true;
+			return removed;
+		}
+	}
+
+	/**
+	 * This method checks whether the current snapshot contains the passed value
+	 *
+	 * @param data - the value to look for
+	 * @return true if the catalog contains the value, false otherwise
+	 */
+	@Override
+	public boolean contains(T data) {
+		return snapshot().contains(data);
+	}
+
+	/**
+	 * This method returns the number of values in the current snapshot
+	 *
+	 * @return the number of values in the catalog
+	 */
+	@Override
+	public int size() {
+		return snapshot().size();
+	}
+
+	/**
+	 * This method checks whether the current snapshot is empty
+	 *
+	 * @return true if the catalog does not contain any value, false otherwise
+	 */
+	@Override
+	public boolean isEmpty() {
+		return snapshot().isEmpty();
+	}
+
+	/**
+	 * This method returns an iterator over the values of the current snapshot in ascending
+	 * order, which is not affected by changes published while it is in use
+	 *
+	 * @return an iterator over the values of the catalog
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		return snapshot().iterator();
+	}
+}
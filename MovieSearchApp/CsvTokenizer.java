@@ -0,0 +1,203 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class splits CSV data into records and fields (following RFC 4180) in a single pass over
+ * the characters read from a Reader. Fields may be quoted, in which case they can contain commas,
+ * line breaks and escaped quotes (""). Only the fields of the columns passed to keepColumns() are
+ * copied, every other field is skipped over without creating any objects, and the buffers holding
+ * the kept fields are reused from one record to the next.
+ */
+public class CsvTokenizer implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // states of the tokenizer while it reads a record
+    private static final int FIELD_START = 0; // nothing of the current field has been read yet
+    private static final int UNQUOTED = 1; // within a field that did not start with a quote
+    private static final int QUOTED = 2; // within the quotes of a quoted field
+    private static final int QUOTE_IN_QUOTED = 3; // just read a quote within a quoted field
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position = 0; // index of the next character to be read from the buffer
+    private int limit = 0; // number of valid characters in the buffer
+
+    private final List<StringBuilder> fields = new ArrayList<StringBuilder>();
+    private int fieldCount = 0; // number of fields in the current record
+    private boolean[] keptColumns = null; // null when every column is kept
+
+    /**
+     * Constructor method so as to create a CsvTokenizer reading from the passed Reader. The
+     * Reader does not need to be buffered as the tokenizer reads large blocks at once.
+     *
+     * @param reader - the source of the CSV data
+     */
+    public CsvTokenizer(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * This method restricts the fields which are copied out of the following records to the
+     * passed columns. The fields of all other columns are skipped over. Until this method is
+     * called, every field is kept.
+     *
+     * @param columns - the indices of the columns to be kept
+     */
+    public void keepColumns(int... columns) {
+        int maxColumn = -1;
+        for (int column : columns) {
+            maxColumn = Math.max(maxColumn, column);
+        }
+        keptColumns = new boolean[maxColumn + 1];
+        for (int column : columns) {
+            keptColumns[column] = true;
+        }
+    }
+
+    /**
+     * This method reads the next record, skipping blank lines
+     *
+     * @return true if a record was read, false if the end of the data has been reached
+     * @throws IOException if the Reader fails
+     */
+    public boolean nextRecord() throws IOException {
+        int recordLength;
+        do {
+            recordLength = readRecord();
+        } while (recordLength == 0);
+        return recordLength > 0;
+    }
+
+    /**
+     * This method returns the number of fields within the current record
+     *
+     * @return the number of fields within the current record
+     */
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * This method returns a field of the current record, with the quotes of a quoted field
+     * removed and escaped quotes replaced by a single quote. The returned characters are only
+     * valid until the next record is read.
+     *
+     * @param column - the index of the field's column
+     * @return the field's characters, or null if the current record has no field in that column
+     *         or the column is not kept
+     */
+    public CharSequence field(int column) {
+        if (column < 0 || column >= fieldCount || !isKept(column)) {
+            return null;
+        }
+        return fields.get(column);
+    }
+
+    /**
+     * This method closes the underlying Reader
+     *
+     * @throws IOException if the Reader cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Helper method that reads a single record, up to and including its line break
+     *
+     * @return the number of characters of the record without its line break (0 for a blank
+     *         line), or -1 if the end of the data has been reached before the record started
+     * @throws IOException if the Reader fails
+     */
+    private int readRecord() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        fieldCount = 0;
+        int recordLength = 0;
+        StringBuilder field = beginField();
+        int state = FIELD_START;
+        while (position < limit || fill()) {
+            char c = buffer[position++];
+            if (state == QUOTED) {
+                if (c == '"') {
+                    state = QUOTE_IN_QUOTED;
+                } else {
+                    append(field, c);
+                }
+            } else if (state == QUOTE_IN_QUOTED && c == '"') {
+                // two quotes within a quoted field stand for a single quote
+                append(field, c);
+                state = QUOTED;
+            } else if (c == ',') {
+                field = beginField();
+                state = FIELD_START;
+            } else if (c == '\n' || c == '\r') {
+                // a record ends with \n, \r\n or a lone \r
+                if (c == '\r' && (position < limit || fill()) && buffer[position] == '\n') {
+                    position++;
+                }
+                return recordLength;
+            } else if (state == FIELD_START && c == '"') {
+                state = QUOTED;
+            } else {
+                // characters after the closing quote of a quoted field are kept as they are
+                append(field, c);
+                state = UNQUOTED;
+            }
+            recordLength++;
+        }
+        // the data ended without a line break after the last record
+        return recordLength;
+    }
+
+    /**
+     * Helper method that starts the next field of the current record
+     *
+     * @return the cleared buffer for the field, or null if its column is not kept
+     */
+    private StringBuilder beginField() {
+        int column = fieldCount++;
+        if (!isKept(column)) {
+            return null;
+        }
+        while (fields.size() <= column) {
+            fields.add(new StringBuilder());
+        }
+        StringBuilder field = fields.get(column);
+        field.setLength(0);
+        return field;
+    }
+
+    /**
+     * @param column - the index of a column
+     * @return true if the fields of the column are copied
+     */
+    private boolean isKept(int column) {
+        return keptColumns == null || (column < keptColumns.length && keptColumns[column]);
+    }
+
+    private static void append(StringBuilder field, char c) {
+        if (field != null) {
+            field.append(c);
+        }
+    }
+
+    /**
+     * Helper method that reads the next block of characters into the buffer
+     *
+     * @return true if characters were read, false if the end of the data has been reached
+     * @throws IOException if the Reader fails
+     */
+    private boolean fill() throws IOException {
+        int read = reader.read(buffer, 0, buffer.length);
+        position = 0;
+        limit = Math.max(read, 0);
+        return read > 0;
+    }
+}
@@ -0,0 +1,262 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Sorted collection which stores its values in a single array in Eytzinger
+ * order: the root is stored at index 1 and the children of the value at index k
+ * are stored at indices 2k and 2k + 1, like within a binary heap. A search thus
+ * walks down an implicit balanced binary search tree without following any
+ * references, and the first levels of the tree share a few cache lines instead
+ * of being scattered across the heap.
+ *
+ * The layout is meant for read-mostly data, such as a snapshot of a
+ * RedBlackTree used for serving lookups. Inserted values are kept in a small
+ * sorted buffer first, and the array is only rebuilt by insert once the buffer
+ * is full. Reading methods never change the collection, so any number of
+ * threads may read it at the same time as long as no thread inserts into it.
+ */
+public class EytzingerTree<T extends Comparable<T>> implements SortedCollectionInterface<T> {
+
+	private static final int MIN_PENDING_CAPACITY = 64;
+	// moving a pending value is far cheaper than rebuilding the layout, so the
+	// buffer may hold this many times the square root of the layout's size
+	private static final int PENDING_FACTOR = 16;
+
+	protected Object[] layout = new Object[1]; // values in Eytzinger order, index 0 unused
+	protected int layoutSize = 0; // the number of values within the layout
+	protected List<T> pending = new ArrayList<>(); // sorted values inserted since the last rebuild
+
+	/**
+	 * Creates an empty collection.
+	 */
+	public EytzingerTree() {
+	}
+
+	/**
+	 * Creates a collection holding the provided values, which have to be given in
+	 * strictly ascending order, such as the values of a RedBlackTree. The layout
+	 * is built in linear time.
+	 *
+	 * @param sortedData the values to be stored, in ascending order
+	 * @throws NullPointerException     when the values contain a null reference
+	 * @throws IllegalArgumentException when the values are not in strictly
+	 *                                  ascending order
+	 */
+	public EytzingerTree(Iterable<? extends T> sortedData) {
+		List<T> values = new ArrayList<>();
+		for (T value : sortedData) {
+			if (value == null)
+				throw new NullPointerException("This EytzingerTree cannot store null references.");
+			if (!values.isEmpty() && values.get(values.size() - 1).compareTo(value) >= 0)
+				throw new IllegalArgumentException("The provided values are not strictly sorted.");
+			values.add(value);
+		}
+		buildLayout(values);
+	}
+
+	/**
+	 * Helper method that stores the passed sorted values in Eytzinger order.
+	 *
+	 * @param sortedData the values in ascending order without duplicates
+	 */
+	private void buildLayout(List<T> sortedData) {
+		layoutSize = sortedData.size();
+		layout = new Object[layoutSize + 1];
+		// an in-order walk over the implicit tree visits its indices in sorted order
+		int index = nextIndex(0);
+		for (T value : sortedData) {
+			layout[index] = value;
+			index = nextIndex(index);
+		}
+	}
+
+	/**
+	 * Helper method that returns the index that follows the passed one in an
+	 * in-order walk over the implicit tree, or the leftmost index when 0 is
+	 * passed.
+	 *
+	 * @param index the current index, or 0 to start the walk
+	 * @return the next index, or 0 if the walk is complete
+	 */
+	private int nextIndex(int index) {
+		if (index == 0 || 2 * index + 1 <= layoutSize) {
+			// descending to the leftmost index of the right subtree (or of the root)
+			index = index == 0 ? 1 : 2 * index + 1;
+			while (2 * index <= layoutSize)
+				index = 2 * index;
+			return index;
+		}
+		// climbing up while coming from a right child, then once more
+		while ((index & 1) == 1)
+			index >>>= 1;
+		return index >>> 1;
+	}
+
+	/**
+	 * Inserts a value into the collection. The value is added to a sorted buffer
+	 * of pending values, which is merged into the layout once it holds a multiple
+	 * of the square root of the collection's size, so that inserting n values
+	 * costs O(n sqrt(n)) instead of the O(n^2) of rebuilding the layout every
+	 * time.
+	 *
+	 * @param data the value to be added into this collection
+	 * @return true if the value was inserted
+	 * @throws NullPointerException     when the provided data argument is null
+	 * @throws IllegalArgumentException when the collection already contains a
+	 *                                  value equal to data
+	 */
+	@Override
+	public boolean insert(T data) throws NullPointerException, IllegalArgumentException {
+		if (data == null)
+			throw new NullPointerException("This EytzingerTree cannot store null references.");
+		if (findInLayout(data) != 0)
+			throw new IllegalArgumentException("This EytzingerTree already contains that value.");
+		int position = Collections.binarySearch(pending, data);
+		if (position >= 0)
+			throw new IllegalArgumentException("This EytzingerTree already contains that value.");
+		pending.add(-position - 1, data);
+		if (pending.size() > Math.max(MIN_PENDING_CAPACITY,
+				PENDING_FACTOR * (int) Math.sqrt(layoutSize)))
+			rebuild();
+		return true;
+	}
+
+	/**
+	 * Helper method that merges the pending values into the layout and rebuilds
+	 * it.
+	 */
+	protected void rebuild() {
+		if (pending.isEmpty())
+			return;
+		List<T> merged = new ArrayList<>(layoutSize + pending.size());
+		for (Iterator<T> values = new MergingIterator(); values.hasNext();)
+			merged.add(values.next());
+		pending = new ArrayList<>();
+		buildLayout(merged);
+	}
+
+	/**
+	 * Helper method that searches the layout for a value equal to the passed one.
+	 * Every step moves from index k to index 2k or 2k + 1, so the indices visited
+	 * near the root lie close together within the array.
+	 *
+	 * @param data the value to look for
+	 * @return the index of the equal value, or 0 if there is none
+	 */
+	@SuppressWarnings("unchecked")
+	private int findInLayout(T data) {
+		int index = 1;
+		while (index <= layoutSize) {
+			int compare = data.compareTo((T) layout[index]);
+			if (compare == 0)
+				return index;
+			index = 2 * index + (compare > 0 ? 1 : 0);
+		}
+		return 0;
+	}
+
+	/**
+	 * Checks whether the collection contains a value equal to the provided one.
+	 *
+	 * @param data the value to look for
+	 * @return true if the collection contains the value, false otherwise
+	 * @throws NullPointerException when the provided data argument is null
+	 */
+	@Override
+	public boolean contains(T data) {
+		if (data == null)
+			throw new NullPointerException("This EytzingerTree cannot store null references.");
+		return findInLayout(data) != 0 || Collections.binarySearch(pending, data) >= 0;
+	}
+
+	/**
+	 * Get the size of the collection.
+	 *
+	 * @return the number of values in the collection
+	 */
+	@Override
+	public int size() {
+		return layoutSize + pending.size();
+	}
+
+	/**
+	 * Method to check if the collection is empty (does not contain any value).
+	 *
+	 * @return true if the collection is empty, false otherwise
+	 */
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * Returns an iterator over the values of the collection in ascending order.
+	 * Pending values are merged with the values of the layout on the fly, so the
+	 * collection itself is left unchanged. The collection must not be modified
+	 * while the iterator is in use.
+	 *
+	 * @return an iterator over the values in ascending order
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		return pending.isEmpty() ? new LayoutIterator() : new MergingIterator();
+	}
+
+	/**
+	 * Iterates over the values of the layout and the pending values together, by
+	 * merging both sorted sequences.
+	 */
+	private class MergingIterator implements Iterator<T> {
+		private final Iterator<T> layoutValues = new LayoutIterator();
+		private final Iterator<T> pendingValues = pending.iterator();
+		private T nextLayoutValue = layoutValues.hasNext() ? layoutValues.next() : null;
+		private T nextPendingValue = pendingValues.hasNext() ? pendingValues.next() : null;
+
+		@Override
+		public boolean hasNext() {
+			return nextLayoutValue != null || nextPendingValue != null;
+		}
+
+		@Override
+		public T next() {
+			if (!hasNext())
+				throw new NoSuchElementException("There are no more values in this EytzingerTree.");
+			T value;
+			if (nextPendingValue == null || (nextLayoutValue != null
+					&& nextLayoutValue.compareTo(nextPendingValue) < 0)) {
+				value = nextLayoutValue;
+				nextLayoutValue = layoutValues.hasNext() ? layoutValues.next() : null;
+			} else {
+				value = nextPendingValue;
+				nextPendingValue = pendingValues.hasNext() ? pendingValues.next() : null;
+			}
+			return value;
+		}
+	}
+
+	/**
+	 * Iterates over the values of the layout by walking the implicit tree in
+	 * order.
+	 */
+	private class LayoutIterator implements Iterator<T> {
+		private int nextIndex = layoutSize == 0 ? 0 : nextIndex(0);
+
+		@Override
+		public boolean hasNext() {
+			return nextIndex != 0;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public T next() {
+			if (!hasNext())
+				throw new NoSuchElementException("There are no more values in this EytzingerTree.");
+			T value = (T) layout[nextIndex];
+			nextIndex = nextIndex(nextIndex);
+			return value;
+		}
+	}
+}
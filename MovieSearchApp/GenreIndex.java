@@ -0,0 +1,183 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+
+/**
+ * This class implements an inverted index from genre tokens to movies. Compound genres such as
+ * "Science fiction/Drama" are split on slashes and spaces into lower case tokens ("science",
+ * "fiction", "drama"), and every token maps to an OrdinalBitmap of the movies carrying it.
+ *
+ * The index is built from a snapshot of a sorted collection of movies, such as a RedBlackTree,
+ * and a movie's ordinal is its position within that collection, i.e. its rank. As the movies are
+ * ordered by rating, the movies within a rating range have consecutive ordinals, so a query like
+ * "all dramas rated above 7" only visits the part of the drama bitmap within that range, and
+ * takes time proportional to the number of matches rather than to the size of the catalog.
+ * Genre conditions can be combined with OrdinalBitmap.and, or, and andNot, e.g.
+ * index.find(index.withToken("drama").andNot(index.withToken("comedy")), 7.0, 10.0).
+ */
+public class GenreIndex {
+	private final List<MovieData> movies; // the movies in ascending order, indexed by ordinal
+	private final Map<String, OrdinalBitmap> tokenBitmaps = new HashMap<String, OrdinalBitmap>();
+
+	/**
+	 * Constructor method so as to create a GenreIndex of the passed movies. The index is a
+	 * snapshot: movies inserted into the collection afterwards are not part of it.
+	 *
+	 * @param sortedMovies - the movies to be indexed in ascending order, such as a RedBlackTree
+	 * @throws IllegalArgumentException if the movies are not in strictly ascending order
+	 */
+	public GenreIndex(Iterable<MovieData> sortedMovies) {
+		movies = new ArrayList<MovieData>();
+		for (MovieData movie : sortedMovies) {
+			if (!movies.isEmpty() && movies.get(movies.size() - 1).compareTo(movie) >= 0) {
+				throw new IllegalArgumentException("The provided movies are not strictly sorted.");
+			}
+			int ordinal = movies.size();
+			movies.add(movie);
+			for (String token : tokens(movie.getGenre())) {
+				OrdinalBitmap bitmap = tokenBitmaps.get(token);
+				if (bitmap == null) {
+					bitmap = new OrdinalBitmap();
+					tokenBitmaps.put(token, bitmap);
+				}
+				bitmap.add(ordinal);
+			}
+		}
+	}
+
+	/**
+	 * This method splits a genre into its tokens, which are the lower case words between its
+	 * slashes and spaces
+	 *
+	 * @param genre - the genre, such as "Science fiction/Drama"
+	 * @return the tokens of the genre, such as [science, fiction, drama]
+	 */
+	public static List<String> tokens(String genre) {
+		List<String> tokens = new ArrayList<String>();
+		for (String token : genre.toLowerCase(Locale.ROOT).split("[/\\s]+")) {
+			if (!token.isEmpty()) {
+				tokens.add(token);
+			}
+		}
+		return tokens;
+	}
+
+	/**
+	 * This method returns the ordinals of the movies whose genre contains the passed token. The
+	 * returned bitmap belongs to the index and must not be modified; combining it with other
+	 * bitmaps creates new ones.
+	 *
+	 * @param token - the token, which is compared ignoring case
+	 * @return the ordinals of the movies carrying the token
+	 */
+	public OrdinalBitmap withToken(String token) {
+		OrdinalBitmap bitmap = tokenBitmaps.get(token.toLowerCase(Locale.ROOT));
+		return bitmap == null ? new OrdinalBitmap() : bitmap;
+	}
+
+	/**
+	 * This method returns the ordinals of the movies whose genre contains every token of the
+	 * passed genre, so that "science fiction" finds both "Science fiction" and
+	 * "Science fiction/Drama"
+	 *
+	 * @param genre - the genre whose tokens have to be present
+	 * @return the ordinals of the movies carrying all tokens of the genre
+	 */
+	public OrdinalBitmap withGenre(String genre) {
+		OrdinalBitmap result = null;
+		for (String token : tokens(genre)) {
+			result = result == null ? withToken(token) : result.and(withToken(token));
+		}
+		return result == null ? new OrdinalBitmap() : result;
+	}
+
+	/**
+	 * This method returns the ordinals of all movies of the index, which can be combined with
+	 * andNot to find the movies not carrying a token
+	 *
+	 * @return the ordinals of all movies
+	 */
+	public OrdinalBitmap all() {
+		return OrdinalBitmap.range(0, movies.size());
+	}
+
+	/**
+	 * This method returns the tokens of all genres within the index
+	 *
+	 * @return the tokens of the index
+	 */
+	public Set<String> tokens() {
+		return Collections.unmodifiableSet(tokenBitmaps.keySet());
+	}
+
+	/**
+	 * This method returns the movies with the passed ordinals, in ascending order
+	 *
+	 * @param ordinals - the ordinals of the movies, such as the result of a genre query
+	 * @return the movies with the passed ordinals
+	 */
+	public List<MovieData> find(OrdinalBitmap ordinals) {
+		return find(ordinals, 0, movies.size());
+	}
+
+	/**
+	 * This method returns the movies with the passed ordinals whose rating lies between the
+	 * passed ratings (both included), in ascending order
+	 *
+	 * @param ordinals - the ordinals of the movies, such as the result of a genre query
+	 * @param lowestRating - the lowest rating to be included
+	 * @param highestRating - the highest rating to be included
+	 * @return the movies with the passed ordinals rated within the range
+	 */
+	public List<MovieData> find(OrdinalBitmap ordinals, double lowestRating,
+			double highestRating) {
+		return find(ordinals, ordinalOf(MovieData.ratingLowerBound(lowestRating)),
+				ordinalOf(MovieData.ratingUpperBound(highestRating)));
+	}
+
+	/**
+	 * Helper method that returns the movies with the passed ordinals from the range of ordinals
+	 */
+	private List<MovieData> find(OrdinalBitmap ordinals, int from, int to) {
+		List<MovieData> found = new ArrayList<MovieData>();
+		PrimitiveIterator.OfInt matches = ordinals.iterator(from, to);
+		while (matches.hasNext()) {
+			found.add(movies.get(matches.nextInt()));
+		}
+		return found;
+	}
+
+	/**
+	 * Helper method that finds the ordinal of the first movie which is not smaller than the
+	 * passed bound, like RedBlackTree.rank does
+	 */
+	private int ordinalOf(MovieData bound) {
+		int position = Collections.binarySearch(movies, bound);
+		return position >= 0 ? position : -position - 1;
+	}
+
+	/**
+	 * This method returns the movie with the passed ordinal
+	 *
+	 * @param ordinal - the ordinal of the movie
+	 * @return the movie
+	 * @throws IndexOutOfBoundsException if no movie has the passed ordinal
+	 */
+	public MovieData movie(int ordinal) {
+		return movies.get(ordinal);
+	}
+
+	/**
+	 * This method returns the number of movies within the index
+	 *
+	 * @return the number of movies within the index
+	 */
+	public int size() {
+		return movies.size();
+	}
+}
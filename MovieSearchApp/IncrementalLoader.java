@@ -0,0 +1,477 @@
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * This class keeps track of the movies loaded from the CSV file(s) of a directory and reloads only
+ * the files that changed since the previous load. For every file it remembers the movies it was
+ * loaded with, keyed by their title and year, which identify a movie across loads while its
+ * rating may change. Reloading a file compares its rows with the remembered ones and describes
+ * the outcome as a CatalogDelta of added, removed, and changed movies, so the cost of a reload
+ * depends on the size of the changed files rather than on the size of the catalog.
+ *
+ * A RedBlackTree holds a single movie per rating and title, while several files, or several rows
+ * of a file with different years, may hold a movie with the same rating and title. The loader
+ * therefore counts the rows holding every movie of the tree: a movie is only removed from the
+ * tree once no file holds it anymore, and the tree keeps the row that was loaded first, like
+ * DuplicatePolicy.KEEP_FIRST does.
+ *
+ * Changes are found either by rescanning the directory, which compares the modification time
+ * and size of every file, or by watching the directory with a WatchService, which is told about
+ * created, modified, and deleted files by the operating system. The methods taking a sink only
+ * keep the outcome of a reload once the sink has applied its delta, so that the loader and the
+ * catalog never disagree about the movies of a file.
+ */
+public class IncrementalLoader implements Closeable {
+
+    /**
+     * The movies of a single CSV file as of its last load
+     */
+    private static class LoadedFile {
+        private final long lastModified;
+        private final long length;
+        private final Map<String, MovieData> movies; // the movies of the file by their key
+
+        private LoadedFile(long lastModified, long length, Map<String, MovieData> movies) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.movies = movies;
+        }
+    }
+
+    private final File directory;
+    private final MovieLoader loader;
+    private final Map<String, LoadedFile> loadedFiles = new HashMap<String, LoadedFile>();
+    // the rows of all files holding every movie of the tree, keyed by the movie's rating and
+    // title; the first row is the one held by the tree
+    private final Map<MovieData, List<MovieData>> rowsByMovie =
+            new TreeMap<MovieData, List<MovieData>>();
+    // restores the state before the current load, in reverse order, if its delta is not applied
+    private final List<Runnable> undoLog = new ArrayList<Runnable>();
+    private volatile WatchService watchService;
+
+    /**
+     * Constructor method so as to create an IncrementalLoader for the CSV file(s) of the passed
+     * directory. No file is loaded until load, rescan, or watch is called.
+     *
+     * @param directoryPath - path to a directory containing CSV file(s) with movie data
+     * @param loader - the loader reading the CSV files
+     */
+    public IncrementalLoader(String directoryPath, MovieLoader loader) {
+        this.directory = new File(directoryPath).getAbsoluteFile();
+        this.loader = loader;
+    }
+
+    /**
+     * This method returns the key identifying a movie across loads
+     *
+     * @param movie - the movie
+     * @return the key of the movie, made of its title and year
+     */
+    public static String keyOf(MovieDataInterface movie) {
+        return movie.getTitle() + '\u0000' + movie.getYear();
+    }
+
+    /**
+     * This method loads every CSV file of the directory, like MovieLoader.loadFilesInDirectory
+     * does, and remembers their movies for later reloads
+     *
+     * @return a delta adding the movies of all files, and removing the movies of files that were
+     *         loaded before but no longer exist, which the caller has to apply
+     * @throws FileNotFoundException if the directory does not exist
+     */
+    public synchronized CatalogDelta load() throws FileNotFoundException {
+        return load(delta -> {
+        });
+    }
+
+    /**
+     * This method loads every CSV file of the directory like load() does and passes the delta on
+     * to the sink. If the sink throws an exception, the loader forgets this load and the
+     * exception is passed on, so that the next load or rescan finds the same changes again.
+     *
+     * @param sink - applies the delta if it is not empty, such as CatalogDelta.applyTo
+     * @return the delta that was applied
+     * @throws FileNotFoundException if the directory does not exist
+     */
+    public synchronized CatalogDelta load(Consumer<? super CatalogDelta> sink)
+            throws FileNotFoundException {
+        Set<String> files = csvFileNames();
+        List<String> names = new ArrayList<String>();
+        for (String name : loadedFiles.keySet()) {
+            if (!files.contains(name)) {
+                names.add(name);
+            }
+        }
+        names.addAll(files);
+        return reloadFiles(names, sink);
+    }
+
+    /**
+     * This method compares the modification time and size of every CSV file of the directory
+     * with their values at the previous load, and reloads the files that were added, modified,
+     * or removed since
+     *
+     * @return the changes within the reloaded files, which the caller has to apply
+     * @throws FileNotFoundException if the directory does not exist
+     */
+    public synchronized CatalogDelta rescan() throws FileNotFoundException {
+        return rescan(delta -> {
+        });
+    }
+
+    /**
+     * This method reloads the files that changed since the previous load like rescan() does and
+     * passes the delta on to the sink. If the sink throws an exception, the loader forgets this
+     * rescan and the exception is passed on.
+     *
+     * @param sink - applies the delta if it is not empty, such as CatalogDelta.applyTo
+     * @return the delta that was applied
+     * @throws FileNotFoundException if the directory does not exist
+     */
+    public synchronized CatalogDelta rescan(Consumer<? super CatalogDelta> sink)
+            throws FileNotFoundException {
+        Set<String> files = csvFileNames();
+        List<String> names = new ArrayList<String>();
+        for (String name : loadedFiles.keySet()) {
+            if (!files.contains(name)) {
+                names.add(name);
+            }
+        }
+        for (String name : files) {
+            File file = new File(directory, name);
+            LoadedFile loaded = loadedFiles.get(name);
+            if (loaded == null || loaded.lastModified != file.lastModified()
+                    || loaded.length != file.length()) {
+                names.add(name);
+            }
+        }
+        return reloadFiles(names, sink);
+    }
+
+    /**
+     * This method reloads the passed files of the directory, no matter whether they changed
+     *
+     * @param fileNames - the names of the files within the directory
+     * @return the changes within the reloaded files, which the caller has to apply
+     */
+    public synchronized CatalogDelta reload(Collection<String> fileNames) {
+        return reload(fileNames, delta -> {
+        });
+    }
+
+    /**
+     * This method reloads the passed files like reload(fileNames) does and passes the delta on
+     * to the sink. If the sink throws an exception, the loader forgets this reload and the
+     * exception is passed on.
+     *
+     * @param fileNames - the names of the files within the directory
+     * @param sink - applies the delta if it is not empty, such as CatalogDelta.applyTo
+     * @return the delta that was applied
+     */
+    public synchronized CatalogDelta reload(Collection<String> fileNames,
+            Consumer<? super CatalogDelta> sink) {
+        return reloadFiles(fileNames, sink);
+    }
+
+    /**
+     * Helper method that reloads the passed files and passes their delta on to the sink. The
+     * changes made to the state of the loader are undone if the sink throws an exception.
+     */
+    private CatalogDelta reloadFiles(Collection<String> fileNames,
+            Consumer<? super CatalogDelta> sink) {
+        CatalogDelta delta = new CatalogDelta();
+        try {
+            for (String name : fileNames) {
+                delta.addAll(reloadFile(name));
+            }
+            if (!delta.isEmpty()) {
+                sink.accept(delta);
+            }
+        } catch (RuntimeException | Error e) {
+            for (int i = undoLog.size() - 1; i >= 0; --i) {
+                undoLog.get(i).run();
+            }
+            throw e;
+        } finally {
+            undoLog.clear();
+        }
+        return delta;
+    }
+
+    /**
+     * Helper method that reloads a single file and compares its movies with the movies it was
+     * loaded with before. A file that no longer exists has no movies, so all of its movies are
+     * released. A file that cannot be read keeps its previous movies until it can be read again.
+     * The rows that were released or acquired are then turned into the changes of the tree.
+     */
+    private CatalogDelta reloadFile(String name) {
+        File file = new File(directory, name);
+        LoadedFile previous = loadedFiles.get(name);
+        Map<String, MovieData> oldMovies = previous == null
+                ? Collections.<String, MovieData>emptyMap() : previous.movies;
+        Map<String, MovieData> newMovies = new LinkedHashMap<String, MovieData>();
+        long lastModified = file.lastModified();
+        long length = file.length();
+        if (file.isFile()) {
+            try {
+                // a duplicate row within the file is ignored like DuplicatePolicy.KEEP_FIRST
+                loader.load(file.getPath(),
+                        movie -> newMovies.putIfAbsent(keyOf(movie), MovieData.of(movie)));
+            } catch (FileNotFoundException | RuntimeException e) {
+                return new CatalogDelta();
+            }
+        }
+
+        List<MovieData> released = new ArrayList<MovieData>();
+        List<MovieData> acquired = new ArrayList<MovieData>();
+        List<MovieData[]> changedRows = new ArrayList<MovieData[]>(); // old and new row
+        for (Map.Entry<String, MovieData> entry : oldMovies.entrySet()) {
+            MovieData oldMovie = entry.getValue();
+            MovieData newMovie = newMovies.get(entry.getKey());
+            if (newMovie == null) {
+                released.add(oldMovie);
+            } else if (oldMovie.getRating() != newMovie.getRating()
+                    || !oldMovie.getGenre().equals(newMovie.getGenre())) {
+                released.add(oldMovie);
+                changedRows.add(new MovieData[] { oldMovie, newMovie });
+            } else {
+                // the unchanged row keeps holding its movie
+                newMovies.put(entry.getKey(), oldMovie);
+            }
+        }
+        for (Map.Entry<String, MovieData> entry : newMovies.entrySet()) {
+            MovieData oldMovie = oldMovies.get(entry.getKey());
+            if (oldMovie != entry.getValue()) {
+                acquired.add(entry.getValue());
+            }
+        }
+        setLoadedFile(name, file.isFile() ? new LoadedFile(lastModified, length, newMovies) : null);
+
+        // the movies of the tree before the rows are released and acquired
+        Map<MovieData, MovieData> heldBefore = new TreeMap<MovieData, MovieData>();
+        for (MovieData movie : released) {
+            heldBefore.put(movie, heldMovie(movie));
+        }
+        for (MovieData movie : acquired) {
+            heldBefore.put(movie, heldMovie(movie));
+        }
+        for (MovieData movie : released) {
+            releaseRow(movie);
+        }
+        for (MovieData movie : acquired) {
+            acquireRow(movie);
+        }
+
+        CatalogDelta delta = new CatalogDelta();
+        Set<MovieData> reported = new TreeSet<MovieData>();
+        // a row whose rating changed moves its movie within the tree when no other row holds
+        // either the old or the new movie
+        for (MovieData[] rows : changedRows) {
+            MovieData oldMovie = heldBefore.get(rows[0]);
+            MovieData newMovie = heldMovie(rows[1]);
+            if (rows[0].compareTo(rows[1]) != 0 && oldMovie != null && heldMovie(rows[0]) == null
+                    && heldBefore.get(rows[1]) == null && newMovie != null
+                    && !reported.contains(rows[0]) && !reported.contains(rows[1])) {
+                delta.addChanged(oldMovie, newMovie);
+                reported.add(rows[0]);
+                reported.add(rows[1]);
+            }
+        }
+        for (Map.Entry<MovieData, MovieData> entry : heldBefore.entrySet()) {
+            if (reported.contains(entry.getKey())) {
+                continue;
+            }
+            MovieData oldMovie = entry.getValue();
+            MovieData newMovie = heldMovie(entry.getKey());
+            if (oldMovie == null && newMovie != null) {
+                delta.addAdded(newMovie);
+            } else if (oldMovie != null && newMovie == null) {
+                delta.addRemoved(oldMovie);
+            } else if (oldMovie != newMovie && (oldMovie.getYear() != newMovie.getYear()
+                    || !oldMovie.getGenre().equals(newMovie.getGenre()))) {
+                // another row now provides the movie of the tree
+                delta.addChanged(oldMovie, newMovie);
+            }
+        }
+        return delta;
+    }
+
+    /**
+     * Helper method that replaces the state of a file, or forgets the file if null is passed
+     */
+    private void setLoadedFile(String name, LoadedFile loaded) {
+        LoadedFile previous = loaded == null ? loadedFiles.remove(name)
+                : loadedFiles.put(name, loaded);
+        undoLog.add(() -> {
+            if (previous == null) {
+                loadedFiles.remove(name);
+            } else {
+                loadedFiles.put(name, previous);
+            }
+        });
+    }
+
+    /**
+     * Helper method that returns the movie the tree holds for the passed rating and title, or
+     * null if no row holds such a movie
+     */
+    private MovieData heldMovie(MovieData movie) {
+        List<MovieData> rows = rowsByMovie.get(movie);
+        return rows == null ? null : rows.get(0);
+    }
+
+    /**
+     * Helper method that adds a row to the rows holding its movie
+     */
+    private void acquireRow(MovieData row) {
+        rowsByMovie.computeIfAbsent(row, movie -> new ArrayList<MovieData>(1)).add(row);
+        undoLog.add(() -> removeRow(row));
+    }
+
+    /**
+     * Helper method that removes a row from the rows holding its movie
+     */
+    private void releaseRow(MovieData row) {
+        int position = removeRow(row);
+        undoLog.add(() -> rowsByMovie.computeIfAbsent(row, movie -> new ArrayList<MovieData>(1))
+                .add(position, row));
+    }
+
+    /**
+     * Helper method that removes the passed row itself, rather than an equal one of another
+     * file, and returns its former position
+     */
+    private int removeRow(MovieData row) {
+        List<MovieData> rows = rowsByMovie.get(row);
+        int position = 0;
+        while (rows.get(position) != row) {
+            position++;
+        }
+        rows.remove(position);
+        if (rows.isEmpty()) {
+            rowsByMovie.remove(row);
+        }
+        return position;
+    }
+
+    /**
+     * Helper method that lists the names of the CSV files within the directory
+     */
+    private Set<String> csvFileNames() throws FileNotFoundException {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            throw new FileNotFoundException(directory.getPath());
+        }
+        Set<String> names = new TreeSet<String>();
+        for (File file : files) {
+            if (file.getName().endsWith("csv") && file.isFile()) {
+                names.add(file.getName());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * This method loads every CSV file of the directory and then watches the directory until
+     * this loader is closed or the calling thread is interrupted. The delta of the first load
+     * and of every later change is passed on to the sink, such as CatalogDelta.applyTo. Events
+     * arriving within a short time of each other are combined, so that a file written in
+     * several steps is reloaded once. If the sink throws an exception, the loader forgets the
+     * changes of that delta and the exception ends the watch.
+     *
+     * @param sink - receives every non-empty delta
+     * @throws FileNotFoundException if the directory does not exist
+     * @throws IOException if the directory cannot be watched
+     */
+    public void watch(Consumer<? super CatalogDelta> sink) throws IOException {
+        WatchService service = FileSystems.getDefault().newWatchService();
+        watchService = service;
+        Path directoryPath = directory.toPath();
+        try {
+            directoryPath.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            // files changed before the directory was registered are caught by the first load
+            load(sink);
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = service.take();
+                Set<String> changedFiles = new TreeSet<String>();
+                boolean overflow = false;
+                while (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            overflow = true;
+                        } else {
+                            String name = ((Path) event.context()).toString();
+                            if (name.endsWith("csv")) {
+                                changedFiles.add(name);
+                            }
+                        }
+                    }
+                    if (!key.reset()) {
+                        // the directory itself is gone
+                        return;
+                    }
+                    key = service.poll(50, TimeUnit.MILLISECONDS);
+                }
+                // events may have been lost, so every file is compared with its last load
+                if (overflow) {
+                    rescan(sink);
+                } else {
+                    reload(changedFiles, sink);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // closing the loader ends the watch
+        } finally {
+            watchService = null;
+            service.close();
+        }
+    }
+
+    /**
+     * This method returns the movies of every file as of its last load
+     *
+     * @return the movies currently known to this loader
+     */
+    public synchronized List<MovieData> getMovies() {
+        List<MovieData> movies = new ArrayList<MovieData>();
+        for (String name : new TreeSet<String>(loadedFiles.keySet())) {
+            movies.addAll(loadedFiles.get(name).movies.values());
+        }
+        return movies;
+    }
+
+    /**
+     * This method ends a running watch
+     */
+    @Override
+    public void close() throws IOException {
+        WatchService service = watchService;
+        if (service != null) {
+            service.close();
+        }
+    }
+}
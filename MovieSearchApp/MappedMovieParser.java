@@ -0,0 +1,491 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * This class parses movies out of a CSV file by memory-mapping the file and scanning its bytes
+ * directly for delimiters, quotes and line breaks, without decoding the file into characters.
+ * Only the title and genre of a row are decoded into Strings, while the year and rating are read
+ * straight from the mapped bytes. Files larger than the mapping window (1 GB by default, and
+ * always below the 2 GB limit of a single mapping) are mapped one window at a time, and a record
+ * crossing the end of a window is read again from a window starting at that record.
+ *
+ * The rules for splitting records and fields are the same as those of CsvTokenizer, so both
+ * produce the same movies for the same file. As the bytes are scanned for ASCII delimiters, the
+ * encoding of the file has to be ASCII-compatible, such as windows-1252 or UTF-8.
+ */
+public class MappedMovieParser implements Closeable {
+
+    static final int DEFAULT_WINDOW_SIZE = 1 << 30;
+
+    // states of the scanner while it reads a record
+    private static final int FIELD_START = 0; // nothing of the current field has been read yet
+    private static final int UNQUOTED = 1; // within a field that did not start with a quote
+    private static final int QUOTED = 2; // within the quotes of a quoted field
+    private static final int QUOTE_IN_QUOTED = 3; // just read a quote within a quoted field
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final int windowSize;
+    private final Charset charset; // decodes the titles and genres
+    private MappedByteBuffer window = null;
+    private long windowStart = 0; // offset of the window's first byte within the file
+
+    // the columns holding the fields of a movie, and the offset of the first data row
+    private final int indexTitle;
+    private final int indexGenre;
+    private final int indexYear;
+    private final int indexRating;
+    private final long dataStart;
+
+    // boundaries (within the window) of the fields of the record that was scanned last
+    private int fieldCount = 0;
+    private int[] fieldStarts = new int[16];
+    private int[] fieldEnds = new int[16];
+    private int[] fieldStates = new int[16]; // state of the scanner at the end of each field
+    private boolean[] fieldsEscaped = new boolean[16]; // fields which need unescaping
+
+    private byte[] scratch = new byte[256]; // receives fields that are copied out of the window
+    private final ByteSlice slice = new ByteSlice();
+
+    /**
+     * Constructor method so as to open and map a CSV file and read the column names from its
+     * header
+     *
+     * @param csvFilePath - path of the CSV file containing the movie data
+     * @param charset - the encoding of the CSV file
+     * @throws IOException if the file cannot be opened or read
+     * @throws IllegalArgumentException if the header lacks one of the columns of a movie
+     */
+    public MappedMovieParser(String csvFilePath, Charset charset) throws IOException {
+        this(csvFilePath, charset, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Constructor method so as to open and map a CSV file with the passed window size
+     *
+     * @param csvFilePath - path of the CSV file containing the movie data
+     * @param charset - the encoding of the CSV file
+     * @param windowSize - the number of bytes mapped at once
+     * @throws IOException if the file cannot be opened or read
+     * @throws IllegalArgumentException if the header lacks one of the columns of a movie
+     */
+    MappedMovieParser(String csvFilePath, Charset charset, int windowSize) throws IOException {
+        this.channel = FileChannel.open(Paths.get(csvFilePath), StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.windowSize = windowSize;
+        this.charset = charset;
+        try {
+            // the header is the first record that is not a blank line
+            long headerStart = 0;
+            while (headerStart < fileSize) {
+                int headerEnd = scanRecordAt(headerStart);
+                headerStart = windowStart + headerEnd;
+                if (fieldCount > 1 || fieldStarts[0] < fieldEnds[0]) {
+                    break;
+                }
+            }
+            // an empty file has no columns and no rows
+            boolean empty = fieldCount == 0;
+            indexTitle = empty ? -1 : findColumn("Title");
+            indexGenre = empty ? -1 : findColumn("Genre");
+            indexYear = empty ? -1 : findColumn("Premiere");
+            indexRating = empty ? -1 : findColumn("IMDB Score");
+            dataStart = headerStart;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * This method returns the size of the file in bytes
+     *
+     * @return the size of the file in bytes
+     */
+    public long size() {
+        return fileSize;
+    }
+
+    /**
+     * This method returns the offset of the first row following the header
+     *
+     * @return the offset of the first data row within the file
+     */
+    public long dataStart() {
+        return dataStart;
+    }
+
+    /**
+     * This method parses every record starting within the passed range of the file and passes
+     * the movies read from them on to the sink, in file order. The range has to start at the
+     * beginning of a record; the last record starting before end is read to its end even if it
+     * goes past end. Rows with a missing field or an unreadable year or rating are skipped.
+     *
+     * @param start - offset of the first record to be parsed
+     * @param end - offset at which no further records are started
+     * @param sink - receives the movies
+     * @return the offset of the first record that was not parsed, which is at or after end
+     *         unless the file ended before
+     * @throws IOException if the file cannot be read
+     */
+    public long parse(long start, long end, Consumer<? super MovieData> sink) throws IOException {
+        long recordStart = start;
+        while (recordStart < end) {
+            int recordEnd = scanRecordAt(recordStart);
+            int recordLength = recordEnd - (int) (recordStart - windowStart);
+            MovieData movie = createMovie();
+            if (movie != null) {
+                sink.accept(movie);
+            }
+            recordStart = windowStart + recordEnd;
+            if (recordLength == 0) {
+                break; // end of the file
+            }
+        }
+        return recordStart;
+    }
+
+    /**
+     * This method counts the quote characters within the passed range of the file. Escaped
+     * quotes come in pairs, so an odd count means that the range ends within a quoted field if
+     * it started outside of one.
+     *
+     * @param start - offset of the first byte to be examined
+     * @param end - offset right after the last byte to be examined
+     * @return the number of quote characters within the range
+     * @throws IOException if the file cannot be read
+     */
+    public long countQuotes(long start, long end) throws IOException {
+        long quotes = 0;
+        long position = start;
+        while (position < end) {
+            map(position);
+            int limit = (int) Math.min(window.limit(), end - windowStart);
+            for (int i = 0; i < limit; ++i) {
+                if (window.get(i) == '"') {
+                    quotes++;
+                }
+            }
+            position = windowStart + limit;
+        }
+        return quotes;
+    }
+
+    /**
+     * This method finds the start of the first record following the passed offset: the byte
+     * after the first line break that does not lie within a quoted field.
+     *
+     * @param offset - offset at which the search starts
+     * @param insideQuotes - true if offset lies within a quoted field
+     * @return the offset of the next record, or the size of the file if there is none
+     * @throws IOException if the file cannot be read
+     */
+    public long nextRecordStart(long offset, boolean insideQuotes) throws IOException {
+        long position = offset;
+        while (position < fileSize) {
+            map(position);
+            int limit = window.limit();
+            for (int i = 0; i < limit; ++i) {
+                byte b = window.get(i);
+                if (b == '"') {
+                    insideQuotes = !insideQuotes;
+                } else if (!insideQuotes && (b == '\n' || b == '\r')) {
+                    long next = windowStart + i + 1;
+                    if (b == '\r' && next < fileSize && (i + 1 < limit ? window.get(i + 1)
+                            : readByte(next)) == '\n') {
+                        next++;
+                    }
+                    return next;
+                }
+            }
+            position = windowStart + limit;
+        }
+        return fileSize;
+    }
+
+    private byte readByte(long offset) throws IOException {
+        ByteBuffer single = ByteBuffer.allocate(1);
+        channel.read(single, offset);
+        return single.get(0);
+    }
+
+    /**
+     * This method closes the file
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Helper method that scans the record starting at the passed offset, mapping a new window
+     * when the record does not lie within the current one
+     *
+     * @param recordStart - offset of the record within the file
+     * @return the index within the window right after the record's line break
+     * @throws IOException if the file cannot be mapped or a record does not fit into a window
+     */
+    private int scanRecordAt(long recordStart) throws IOException {
+        if (window == null || recordStart < windowStart
+                || recordStart - windowStart >= window.limit()) {
+            map(recordStart);
+        }
+        int recordEnd = scanRecord((int) (recordStart - windowStart));
+        if (recordEnd < 0) {
+            // the record crosses the end of the window, so it is read again from its start
+            if (windowStart == recordStart) {
+                throw new IOException("A record at offset " + recordStart
+                        + " is larger than the mapping window");
+            }
+            map(recordStart);
+            recordEnd = scanRecord(0);
+            if (recordEnd < 0) {
+                throw new IOException("A record at offset " + recordStart
+                        + " is larger than the mapping window");
+            }
+        }
+        return recordEnd;
+    }
+
+    private void map(long start) throws IOException {
+        long length = Math.min(windowSize, fileSize - start);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        windowStart = start;
+    }
+
+    /**
+     * Helper method that scans a single record within the window and stores the boundaries of
+     * its fields. A blank line results in a record with a single empty field.
+     *
+     * @param position - index of the record's first byte within the window
+     * @return the index right after the record's line break (equal to position only at the end of
+     *         the file), or -1 if the window ends before the record does
+     */
+    private int scanRecord(int position) {
+        boolean windowReachesEnd = windowStart + window.limit() == fileSize;
+        int limit = window.limit();
+        fieldCount = 0;
+        int fieldStart = position;
+        int state = FIELD_START;
+        boolean escaped = false;
+        while (position < limit) {
+            byte b = window.get(position);
+            if (state == QUOTED) {
+                if (b == '"') {
+                    state = QUOTE_IN_QUOTED;
+                }
+            } else if (state == QUOTE_IN_QUOTED && b == '"') {
+                // two quotes within a quoted field stand for a single quote
+                escaped = true;
+                state = QUOTED;
+            } else if (b == ',') {
+                endField(fieldStart, position, state, escaped);
+                fieldStart = position + 1;
+                state = FIELD_START;
+                escaped = false;
+            } else if (b == '\n' || b == '\r') {
+                // a record ends with \n, \r\n or a lone \r
+                endField(fieldStart, position, state, escaped);
+                int next = position + 1;
+                if (b == '\r') {
+                    if (next < limit) {
+                        if (window.get(next) == '\n') {
+                            next++;
+                        }
+                    } else if (!windowReachesEnd) {
+                        return -1; // a \n may follow within the next window
+                    }
+                }
+                return next;
+            } else if (state == FIELD_START && b == '"') {
+                state = QUOTED;
+            } else {
+                // characters after the closing quote of a quoted field are kept as they are
+                escaped |= state == QUOTE_IN_QUOTED;
+                state = UNQUOTED;
+            }
+            position++;
+        }
+        if (!windowReachesEnd) {
+            return -1;
+        }
+        // the file ended without a line break after the last record
+        endField(fieldStart, position, state, escaped);
+        return position;
+    }
+
+    private void endField(int start, int end, int state, boolean escaped) {
+        if (fieldCount == fieldStarts.length) {
+            int capacity = fieldCount * 2;
+            fieldStarts = Arrays.copyOf(fieldStarts, capacity);
+            fieldEnds = Arrays.copyOf(fieldEnds, capacity);
+            fieldStates = Arrays.copyOf(fieldStates, capacity);
+            fieldsEscaped = Arrays.copyOf(fieldsEscaped, capacity);
+        }
+        fieldStarts[fieldCount] = start;
+        fieldEnds[fieldCount] = end;
+        fieldStates[fieldCount] = state;
+        // a quoted field left open by the end of the file is unescaped the slow way as well
+        fieldsEscaped[fieldCount] = escaped || state == QUOTED;
+        fieldCount++;
+    }
+
+    /**
+     * Helper method that creates a MovieData instance out of the record that was scanned last
+     *
+     * @return the movie, or null if a field is missing or the year or rating cannot be read
+     */
+    private MovieData createMovie() {
+        int maxIndex = Math.max(Math.max(indexTitle, indexGenre), Math.max(indexYear, indexRating));
+        if (fieldCount <= maxIndex) {
+            return null;
+        }
+        int year = MovieLoader.parseYear(field(indexYear));
+        double rating = MovieLoader.parseRating(field(indexRating));
+        if (year == -1 || Double.isNaN(rating)) {
+            return null;
+        }
+        return new MovieData(text(indexTitle), rating, year, text(indexGenre));
+    }
+
+    /**
+     * Helper method that finds the index of a column within the header, which has to be the
+     * record that was scanned last
+     */
+    private int findColumn(String columnName) {
+        for (int i = 0; i < fieldCount; ++i) {
+            if (columnName.equals(text(i))) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("The CSV file has no " + columnName + " column");
+    }
+
+    /**
+     * Helper method that decodes a field of the record that was scanned last into a String
+     */
+    private String text(int column) {
+        ByteSlice field = field(column);
+        if (field.bytes == window) {
+            copyToScratch(field.start, field.end);
+            return new String(scratch, 0, field.end - field.start, charset);
+        }
+        return new String(scratch, 0, field.end, charset);
+    }
+
+    /**
+     * Helper method that returns the bytes of a field of the record that was scanned last, with
+     * its quotes removed. Plain fields are viewed right within the window, fields containing
+     * escaped quotes are unescaped into the scratch array first.
+     */
+    private ByteSlice field(int column) {
+        int start = fieldStarts[column];
+        int end = fieldEnds[column];
+        if (fieldsEscaped[column]) {
+            // unescaping may grow the scratch array, so it is wrapped only afterwards
+            int length = unescape(start, end);
+            return slice.of(ByteBuffer.wrap(scratch), 0, length);
+        }
+        if (fieldStates[column] == QUOTE_IN_QUOTED) {
+            // a quoted field without escaped quotes: drop the enclosing quotes
+            start++;
+            end--;
+        }
+        return slice.of(window, start, end);
+    }
+
+    /**
+     * Helper method that copies a field into the scratch array, following the same rules as
+     * CsvTokenizer for quotes
+     *
+     * @return the number of bytes written to the scratch array
+     */
+    private int unescape(int start, int end) {
+        ensureScratch(end - start);
+        int length = 0;
+        int state = FIELD_START;
+        for (int i = start; i < end; ++i) {
+            byte b = window.get(i);
+            if (state == QUOTED) {
+                if (b == '"') {
+                    state = QUOTE_IN_QUOTED;
+                } else {
+                    scratch[length++] = b;
+                }
+            } else if (state == QUOTE_IN_QUOTED && b == '"') {
+                scratch[length++] = b;
+                state = QUOTED;
+            } else if (state == FIELD_START && b == '"') {
+                state = QUOTED;
+            } else {
+                scratch[length++] = b;
+                state = UNQUOTED;
+            }
+        }
+        return length;
+    }
+
+    private void copyToScratch(int start, int end) {
+        ensureScratch(end - start);
+        window.get(start, scratch, 0, end - start);
+    }
+
+    private void ensureScratch(int length) {
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+    }
+
+    /**
+     * A reusable view of a range of bytes as characters, so that the digits of the year and
+     * rating can be read by MovieLoader.parseYear and MovieLoader.parseRating without decoding
+     * them into a String. Every byte is viewed as a single character, which is exact for the
+     * ASCII digits these fields consist of.
+     */
+    private static class ByteSlice implements CharSequence {
+        private ByteBuffer bytes;
+        private int start;
+        private int end;
+
+        private ByteSlice of(ByteBuffer bytes, int start, int end) {
+            this.bytes = bytes;
+            this.start = start;
+            this.end = end;
+            return this;
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (bytes.get(start + index) & 0xff);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return new ByteSlice().of(bytes, start + from, start + to);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder(length());
+            for (int i = 0; i < length(); ++i) {
+                text.append(charAt(i));
+            }
+            return text.toString();
+        }
+    }
+}
@@ -1,36 +1,5 @@
-/**
- * Methods to be implemented by the MovieData class
- */
-interface MovieDataInterface {
-
-	/**
-	 * This method returns the movie's title
-	 * 
-	 * @return movie's title
-	 */
-	public String getTitle();
-
-	/**
-	 * This method returns the movie's rating
-	 * 
-	 * @return movie's rating
-	 */
-	public double getRating();
-
-	/**
-	 * This method returns the movie's publishing year
-	 * 
-	 * @return movie's publishing year
-	 */
-	public int getYear();
-
-	/**
-	 * This method returns the movie's genre
-	 * 
-	 * @return movie's genre
-	 */
-	public String getGenre();
-}
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * This class contains the necessary implementation to store data of individual
@@ -131,6 +100,150 @@ public class MovieData implements MovieDataInterface, Comparable<MovieData>  {
 			}
 		}
 	}
+
+	/**
+	 * This method returns the passed movie as a MovieData instance, so that it can be compared to
+	 * other movies. Movies which already are MovieData instances are returned as they are, while
+	 * other implementations of MovieDataInterface are copied into a new MovieData instance.
+	 *
+	 * @param movie - the movie to be returned as a MovieData instance
+	 * @return the passed movie as a MovieData instance
+	 */
+	public static MovieData of(MovieDataInterface movie) {
+		if (movie instanceof MovieData) {
+			return (MovieData) movie;
+		}
+		return new MovieData(movie.getTitle(), movie.getRating(), movie.getYear(),
+				movie.getGenre());
+	}
+
+	/**
+	 * This method builds a RedBlackTree holding all of the passed movies, such as the list returned
+	 * by MovieLoader. The movies are sorted once and the tree is built bottom-up in linear time
+	 * instead of inserting every movie on its own.
+	 *
+	 * @param movies - the movies to be stored within the tree
+	 * @param duplicatePolicy - decides which movie is kept when two movies have the same rating
+	 *                          and title
+	 * @return a RedBlackTree holding the passed movies
+	 */
+	public static RedBlackTree<MovieData> buildTree(List<MovieDataInterface> movies,
+			RedBlackTree.DuplicatePolicy duplicatePolicy) {
+		List<MovieData> movieData = new ArrayList<MovieData>(movies.size());
+		for (MovieDataInterface movie : movies) {
+			movieData.add(of(movie));
+		}
+		return new RedBlackTree<MovieData>(movieData, duplicatePolicy);
+	}
+
+	/**
+	 * This method builds a RedBlackTree holding all of the passed movies like buildTree does,
+	 * whose nodes additionally keep the sum of the ratings and the range of the years of their
+	 * subtrees. The average rating and the range of years of any rating range can then be found
+	 * in O(log n) through averageRating and the tree's attributeMin and attributeMax.
+	 *
+	 * @param movies - the movies to be stored within the tree
+	 * @param duplicatePolicy - decides which movie is kept when two movies have the same rating
+	 *                          and title
+	 * @return a RedBlackTree holding the passed movies and their statistics
+	 */
+	public static RedBlackTree<MovieData> buildStatisticsTree(List<MovieDataInterface> movies,
+			RedBlackTree.DuplicatePolicy duplicatePolicy) {
+		List<MovieData> movieData = new ArrayList<MovieData>(movies.size());
+		for (MovieDataInterface movie : movies) {
+			movieData.add(of(movie));
+		}
+		return new RedBlackTree<MovieData>(movieData, duplicatePolicy, false,
+				MovieData::getRating, MovieData::getYear);
+	}
+
+	/**
+	 * This method returns the average rating of the movies rated between the passed ratings
+	 * (both included), in O(log n) for a tree built by buildStatisticsTree
+	 *
+	 * @param tree - the movies, within a tree built by buildStatisticsTree
+	 * @param lowestRating - the lowest rating to be included
+	 * @param highestRating - the highest rating to be included
+	 * @return the average rating of the movies within the range, NaN if there are none
+	 * @throws IllegalStateException if the tree does not keep the sum of the ratings
+	 */
+	public static double averageRating(RedBlackTree<MovieData> tree, double lowestRating,
+			double highestRating) {
+		return tree.metricAverage(ratingLowerBound(lowestRating), ratingUpperBound(highestRating));
+	}
+
+	/**
+	 * This method counts the movies of a tree within consecutive rating buckets of the passed
+	 * width, where bucket i holds the ratings from lowestRating + i * bucketWidth (included) to
+	 * lowestRating + (i + 1) * bucketWidth (excluded). Every bucket is counted through the ranks
+	 * of its bounds in O(log n), without visiting the movies within it. The bounds are rounded to
+	 * six decimals, so that a bound such as 0.1 + 2 * 0.1 equals the rating 0.3 read from a file
+	 * instead of lying just above it.
+	 *
+	 * @param tree - the movies, such as a tree built by buildTree
+	 * @param lowestRating - the lowest rating of the first bucket
+	 * @param bucketWidth - the width of every bucket
+	 * @param buckets - the number of buckets
+	 * @return the number of movies within every bucket
+	 * @throws IllegalArgumentException if bucketWidth is not positive or buckets is negative
+	 */
+	public static int[] ratingHistogram(RedBlackTree<MovieData> tree, double lowestRating,
+			double bucketWidth, int buckets) {
+		if (!(bucketWidth > 0) || buckets < 0) {
+			throw new IllegalArgumentException("The buckets of a histogram need a positive width");
+		}
+		int[] counts = new int[buckets];
+		int below = tree.rank(ratingLowerBound(roundBound(lowestRating)));
+		for (int i = 0; i < buckets; ++i) {
+			double bound = roundBound(lowestRating + (i + 1) * bucketWidth);
+			int upTo = tree.rank(ratingLowerBound(bound));
+			counts[i] = upTo - below;
+			below = upTo;
+		}
+		return counts;
+	}
+
+	/**
+	 * Helper method that rounds a bucket bound to six decimals. Dividing the rounded integer by a
+	 * power of ten yields the same double as parsing the decimal, as both are correctly rounded.
+	 */
+	private static double roundBound(double bound) {
+		// bounds too large for a long are left as they are
+		if (!(Math.abs(bound) < Long.MAX_VALUE / BOUND_SCALE)) {
+			return bound;
+		}
+		return Math.round(bound * BOUND_SCALE) / BOUND_SCALE;
+	}
+
+	private static final double BOUND_SCALE = 1e6; // ratings have at most six decimals
+
+	/**
+	 * This method creates a MovieData instance which does not represent an actual movie but is
+	 * used as a bound for rating based range queries on a RedBlackTree storing MovieData. As movies
+	 * with the same rating are compared based on their title and the empty title is smaller than
+	 * every other title, the returned instance is smaller than every movie with the passed rating
+	 * and larger than every movie with a smaller rating.
+	 *
+	 * @param rating - the lowest rating to be included by the bound
+	 * @return a MovieData instance placed right before all movies with the passed rating
+	 */
+	public static MovieData ratingLowerBound(double rating) {
+		return new MovieData("", rating, 0, "");
+	}
+
+	/**
+	 * This method creates a MovieData instance which does not represent an actual movie but is
+	 * used as a bound for rating based range queries on a RedBlackTree storing MovieData. The
+	 * returned instance is larger than every movie with the passed rating and smaller than every
+	 * movie with a larger rating, so that it can be passed as the exclusive upper bound of a range
+	 * which should still include the movies with the passed rating.
+	 *
+	 * @param rating - the highest rating to be included by the bound
+	 * @return a MovieData instance placed right after all movies with the passed rating
+	 */
+	public static MovieData ratingUpperBound(double rating) {
+		return new MovieData("", Math.nextUp(rating), 0, "");
+	}
 }
 
 // placeholders for the MovieData class
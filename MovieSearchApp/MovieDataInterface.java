@@ -0,0 +1,33 @@
+/**
+ * Methods to be implemented by the MovieData class
+ */
+interface MovieDataInterface {
+
+	/**
+	 * This method returns the movie's title
+	 * 
+	 * @return movie's title
+	 */
+	public String getTitle();
+
+	/**
+	 * This method returns the movie's rating
+	 * 
+	 * @return movie's rating
+	 */
+	public double getRating();
+
+	/**
+	 * This method returns the movie's publishing year
+	 * 
+	 * @return movie's publishing year
+	 */
+	public int getYear();
+
+	/**
+	 * This method returns the movie's genre
+	 * 
+	 * @return movie's genre
+	 */
+	public String getGenre();
+}
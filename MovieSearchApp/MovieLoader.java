@@ -1,5 +1,24 @@
+import java.io.Closeable;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import java.io.File;
 
 /**
@@ -34,6 +53,31 @@ interface MovieLoaderInterface {
      */
     public List<MovieDataInterface> loadFilesInDirectory(String directoryPath)
             throws FileNotFoundException;
+
+    /**
+     * This method reads in data about movies from the passed path to a CSV file
+     * and passes every movie on to the sink as soon as it has been read, without
+     * storing the movies in a list
+     *
+     * @param csvFilePath - path of the CSV file containing the movie data
+     * @param sink        - receives the movies in the order of the CSV file
+     * @throws FileNotFoundException if the CSV file does not exist at the specified
+     *                               path
+     */
+    public void load(String csvFilePath, Consumer<? super MovieDataInterface> sink)
+            throws FileNotFoundException;
+
+    /**
+     * This method returns a stream over the movies of the passed path to a CSV
+     * file, which reads the file while the stream is consumed and has to be closed
+     * afterwards
+     *
+     * @param csvFilePath - path of the CSV file containing the movie data
+     * @return a stream over the movies in the order of the CSV file
+     * @throws FileNotFoundException if the CSV file does not exist at the specified
+     *                               path
+     */
+    public Stream<MovieDataInterface> stream(String csvFilePath) throws FileNotFoundException;
 }
 
 /**
@@ -43,6 +87,87 @@ interface MovieLoaderInterface {
  */
 public class MovieLoader implements MovieLoaderInterface {
 
+    /**
+     * The ways in which the loader can read a CSV file
+     */
+    public enum ReadMode {
+        /** decode the file into characters and split them with a CsvTokenizer */
+        STREAMING,
+        /** memory-map the file and scan its bytes with a MappedMovieParser */
+        MEMORY_MAPPED
+    }
+
+    // a file is only split into chunks of at least this many bytes
+    private static final long MIN_CHUNK_SIZE = 1 << 20;
+    // a file is split into this many chunks per thread, so that threads finishing early can
+    // take over chunks from the others
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * The encoding of the CSV files when no other one is passed, which is the encoding of the
+     * NetflixOriginals.csv file shipped with the application
+     */
+    public static final Charset DEFAULT_CHARSET = Charset.forName("windows-1252");
+
+    private final ReadMode readMode;
+    private final int parallelism;
+    private final Charset charset;
+
+    /**
+     * Constructor method so as to create a MovieLoader which streams the CSV files it reads
+     */
+    public MovieLoader() {
+        this(ReadMode.STREAMING);
+    }
+
+    /**
+     * Constructor method so as to create a MovieLoader reading CSV files in the passed mode. The
+     * memory-mapped mode avoids decoding and copying whole files, which pays off for large
+     * catalogs; both modes load the same movies. The loader uses as many threads as there are
+     * processors.
+     *
+     * @param readMode - the way in which CSV files are read
+     */
+    public MovieLoader(ReadMode readMode) {
+        this(readMode, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor method so as to create a MovieLoader reading CSV files in the passed mode with
+     * up to the passed number of threads. In the memory-mapped mode, a large file is split into
+     * chunks at record boundaries which are parsed on a ForkJoinPool of that many threads, and the
+     * movies are returned in the same order as when the file is read by a single thread.
+     *
+     * @param readMode - the way in which CSV files are read
+     * @param parallelism - the number of threads reading a file
+     * @throws IllegalArgumentException if parallelism is smaller than 1
+     */
+    public MovieLoader(ReadMode readMode, int parallelism) {
+        this(readMode, parallelism, DEFAULT_CHARSET);
+    }
+
+    /**
+     * Constructor method so as to create a MovieLoader reading CSV files in the passed encoding,
+     * in the passed mode with up to the passed number of threads
+     *
+     * @param readMode - the way in which CSV files are read
+     * @param parallelism - the number of threads reading a file
+     * @param charset - the encoding of the CSV files
+     * @throws IllegalArgumentException if parallelism is smaller than 1
+     * @throws NullPointerException if charset is null
+     */
+    public MovieLoader(ReadMode readMode, int parallelism, Charset charset) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("The parallelism has to be at least 1");
+        }
+        if (charset == null) {
+            throw new NullPointerException("The charset of a MovieLoader cannot be null");
+        }
+        this.readMode = readMode;
+        this.parallelism = parallelism;
+        this.charset = charset;
+    }
+
     /**
      * This method reads in data about movies from the passed path to a CSV file,
      * stores all this data in a list, and finally returns this list
@@ -55,96 +180,490 @@ public class MovieLoader implements MovieLoaderInterface {
      */
     @Override
     public List<MovieDataInterface> loadFile(String csvFilePath) throws FileNotFoundException {
-        List<MovieDataInterface> moviesList = new LinkedList<MovieDataInterface>();
-        File movieFile = new File(csvFilePath);
-        Scanner fileScnr = new Scanner(movieFile);
-        int indexTitle = 0;
-        int indexGenre = 0;
-        int indexYear = 0;
-        int indexRating = 0;
-        // obtaining the column names
-        String colNames = fileScnr.nextLine();
-        String[] cols = colNames.split(",");
-        // index of the fields are found
-        for (int i = 0; i < cols.length; ++i) {
-            if (cols[i].equals("Title")) {
-                indexTitle = i;
-            }
-
-            if (cols[i].equals("Genre")) {
-                indexGenre = i;
-            }
-
-            if (cols[i].equals("Premiere")) {
-                indexYear = i;
-            }
-
-            if (cols[i].equals("IMDB Score")) {
-                indexRating = i;
-            }
-        }
-
-        // reading in the rows of the dataset
-        while (fileScnr.hasNextLine()) {
-            String readRow = fileScnr.nextLine();
-            String[] rowContent = readRow.split(",");
-
-            // to count the number of quotes present in a single field of data
-            for (int i = 0; i < rowContent.length; ++i) {
-             int numQuotes = 0;
-             for (int j = 0; j < rowContent[i].length(); ++j) {
-             if (rowContent[i].charAt(j) == '"') {
-             numQuotes += 1;
-             }
-             }
-
-             // if the number of quotes in a single field of data is even, we are not required to
-             // make any changes
-             if (numQuotes % 2 == 0) {
-             }
-             // if the quotes in a single field of data is not balanced, we are required to adjust
-             // the array storing the row data so that the quotes become balanced
-             else {
-             rowContent[i + 1] = rowContent[i].concat(",").concat(rowContent[i + 1]);
-             }
-             }
-
-            ArrayList<String> rowData = new ArrayList<String>(Arrays.asList(rowContent));
-
-            String title = null;
-            String genre = null;
-            int year = -1;
-            double rating = -1;
-
-            // extracting the fields from the captured data of the rows
-            if (rowData.get(indexTitle).substring(0,1).equals("\"")) {
-                title = rowData.get(indexTitle + 1).substring(1, rowData.get(indexTitle +
-                        1).length());
-                genre = rowData.get(indexGenre + 1);
-                year = Integer.parseInt(rowData.get(indexYear + 2).trim().substring(rowData.
-                        get(indexYear + 2).length() - 5).substring(0, 4));
-                rating = Double.parseDouble(rowData.get(indexRating + 2));
-            } else if (!(rowData.get(indexYear).substring(0,1).equals("\""))) {
-                title = rowData.get(indexTitle);
-                genre = rowData.get(indexGenre);
-                year = Integer.parseInt(rowData.get(indexYear).substring(rowData.get(indexYear).
-                        length() - 4));
-                rating = Double.parseDouble(rowData.get(indexRating));
+        return loadFile(csvFilePath, true);
+    }
+
+    /**
+     * Helper method that reads in the movies of a single CSV file in the loader's read mode
+     *
+     * @param csvFilePath - path of the CSV file containing the movie data
+     * @param splitLargeFiles - whether a large file may be split into chunks parsed by several
+     *                          threads, which is not done while several files are loaded at once
+     * @return a list containing all the movies read in from the passed CSV file
+     * @throws FileNotFoundException if the CSV file does not exist at the specified path
+     */
+    private List<MovieDataInterface> loadFile(String csvFilePath, boolean splitLargeFiles)
+            throws FileNotFoundException {
+        List<MovieDataInterface> moviesList = new ArrayList<MovieDataInterface>();
+        load(csvFilePath, splitLargeFiles, moviesList::add);
+        return moviesList;
+    }
+
+    /**
+     * This method reads in data about movies from the passed path to a CSV file and passes every
+     * movie on to the sink as soon as its row has been parsed, so that the movies can be inserted
+     * into a RedBlackTree or an index without keeping a list of the whole file in memory. The
+     * movies are passed on in file order by the calling thread.
+     *
+     * @param csvFilePath - path of the CSV file containing the movie data
+     * @param sink - receives the movies
+     * @throws FileNotFoundException if the CSV file does not exist at the specified path
+     */
+    public void load(String csvFilePath, Consumer<? super MovieDataInterface> sink)
+            throws FileNotFoundException {
+        // splitting a file into chunks would hold on to the movies of every chunk
+        load(csvFilePath, false, sink);
+    }
+
+    /**
+     * Helper method that reads in the movies of a single CSV file in the loader's read mode and
+     * passes them on to the sink
+     *
+     * @param csvFilePath - path of the CSV file containing the movie data
+     * @param splitLargeFiles - whether a large file may be split into chunks parsed by several
+     *                          threads, whose movies are passed on once all chunks are parsed
+     * @param sink - receives the movies
+     * @throws FileNotFoundException if the CSV file does not exist at the specified path
+     */
+    private void load(String csvFilePath, boolean splitLargeFiles,
+            Consumer<? super MovieDataInterface> sink) throws FileNotFoundException {
+        if (readMode == ReadMode.MEMORY_MAPPED) {
+            loadFileMapped(csvFilePath, splitLargeFiles, sink);
+            return;
+        }
+        try (TokenizedMovieReader reader = new TokenizedMovieReader(csvFilePath, charset)) {
+            MovieData movie;
+            while ((movie = reader.next()) != null) {
+                sink.accept(movie);
+            }
+        } catch (FileNotFoundException e) {
+            // a missing file is reported like in the memory-mapped mode
+            throw e;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + csvFilePath, e);
+        }
+    }
+
+    /**
+     * This method returns a lazy stream over the movies of the passed CSV file. A row is only
+     * read from the file when the stream asks for its next movie, so the stream can be consumed
+     * in constant memory no matter how large the file is. The file stays open until the stream
+     * is closed, which is why it should be used within a try-with-resources statement.
+     *
+     * @param csvFilePath - path of the CSV file containing the movie data
+     * @return a sequential, ordered stream over the movies of the passed CSV file
+     * @throws FileNotFoundException if the CSV file does not exist at the specified path
+     */
+    public Stream<MovieDataInterface> stream(String csvFilePath) throws FileNotFoundException {
+        Closeable source;
+        Spliterator<MovieDataInterface> movies;
+        try {
+            if (readMode == ReadMode.MEMORY_MAPPED) {
+                if (!new File(csvFilePath).isFile()) {
+                    throw new FileNotFoundException(csvFilePath);
+                }
+                MappedMovieParser parser = new MappedMovieParser(csvFilePath, charset);
+                source = parser;
+                movies = new MappedMovieSpliterator(parser);
             } else {
-                title = rowData.get(indexTitle);
-                genre = rowData.get(indexGenre);
-                year = Integer.parseInt(rowData.get(indexYear + 1).substring(rowData.
-                        get(indexYear + 1).length() - 5).substring(0, 4));
-                rating = Double.parseDouble(rowData.get(indexRating+1));
+                TokenizedMovieReader reader = new TokenizedMovieReader(csvFilePath, charset);
+                source = reader;
+                movies = new Spliterators.AbstractSpliterator<MovieDataInterface>(Long.MAX_VALUE,
+                        Spliterator.ORDERED | Spliterator.NONNULL) {
+                    @Override
+                    public boolean tryAdvance(Consumer<? super MovieDataInterface> action) {
+                        MovieData movie;
+                        try {
+                            movie = reader.next();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException("Could not read " + csvFilePath, e);
+                        }
+                        if (movie == null) {
+                            return false;
+                        }
+                        action.accept(movie);
+                        return true;
+                    }
+                };
+            }
+        } catch (FileNotFoundException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + csvFilePath, e);
+        }
+        return StreamSupport.stream(movies, false).onClose(() -> {
+            try {
+                source.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not close " + csvFilePath, e);
+            }
+        });
+    }
+
+    /**
+     * Helper method that reads in the movies of a CSV file by memory-mapping it
+     *
+     * @param csvFilePath - path of the CSV file containing the movie data
+     * @param splitLargeFiles - whether a large file may be split into chunks
+     * @param sink - receives the movies
+     * @throws FileNotFoundException if the CSV file does not exist at the specified path
+     */
+    private void loadFileMapped(String csvFilePath, boolean splitLargeFiles,
+            Consumer<? super MovieDataInterface> sink) throws FileNotFoundException {
+        if (!new File(csvFilePath).isFile()) {
+            throw new FileNotFoundException(csvFilePath);
+        }
+        try (MappedMovieParser parser = new MappedMovieParser(csvFilePath, charset)) {
+            long dataLength = parser.size() - parser.dataStart();
+            int chunkCount = (int) Math.min((long) parallelism * CHUNKS_PER_THREAD,
+                    dataLength / MIN_CHUNK_SIZE);
+            if (splitLargeFiles && parallelism > 1 && chunkCount > 1) {
+                loadFileInChunks(csvFilePath, parser, chunkCount).forEach(sink);
+                return;
+            }
+            parser.parse(parser.dataStart(), parser.size(), sink);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + csvFilePath, e);
+        }
+    }
+
+    /**
+     * Reads the movies of a CSV file one row at a time with a CsvTokenizer
+     */
+    private static class TokenizedMovieReader implements Closeable {
+        private final CsvTokenizer tokenizer;
+        private int indexTitle;
+        private int indexGenre;
+        private int indexYear;
+        private int indexRating;
+
+        /**
+         * Constructor method so as to open a CSV file and read the column names from its header
+         *
+         * @param csvFilePath - path of the CSV file containing the movie data
+         * @param charset - the encoding of the CSV file
+         * @throws IOException if the file cannot be opened or read
+         * @throws IllegalArgumentException if the header lacks one of the columns of a movie
+         */
+        private TokenizedMovieReader(String csvFilePath, Charset charset) throws IOException {
+            Reader movieFileReader = new InputStreamReader(new FileInputStream(csvFilePath),
+                    charset);
+            tokenizer = new CsvTokenizer(movieFileReader);
+            try {
+                // obtaining the column names; an empty file has no rows to be read
+                if (!tokenizer.nextRecord()) {
+                    return;
+                }
+                // index of the fields are found
+                indexTitle = findColumn(tokenizer, "Title");
+                indexGenre = findColumn(tokenizer, "Genre");
+                indexYear = findColumn(tokenizer, "Premiere");
+                indexRating = findColumn(tokenizer, "IMDB Score");
+                // only the fields of these four columns are copied out of the rows
+                tokenizer.keepColumns(indexTitle, indexGenre, indexYear, indexRating);
+            } catch (IOException | RuntimeException e) {
+                tokenizer.close();
+                throw e;
             }
+        }
 
-            if ((!(title == null)) && (!(genre == null)) && (!(year == -1)) && (!(rating == -1))) {
-                MovieData singleMovieRowData = new MovieData(title, rating, year, genre);
-                moviesList.add(singleMovieRowData);
+        /**
+         * This method reads rows until one of them holds a movie
+         *
+         * @return the movie of the next readable row, or null at the end of the file
+         * @throws IOException if the file cannot be read
+         */
+        private MovieData next() throws IOException {
+            while (tokenizer.nextRecord()) {
+                MovieData singleMovieRowData = createMovie(tokenizer.field(indexTitle),
+                        tokenizer.field(indexGenre), tokenizer.field(indexYear),
+                        tokenizer.field(indexRating));
+                if (singleMovieRowData != null) {
+                    return singleMovieRowData;
+                }
             }
+            return null;
         }
 
-        return moviesList;
+        @Override
+        public void close() throws IOException {
+            tokenizer.close();
+        }
+    }
+
+    /**
+     * Splits a memory-mapped CSV file into its movies one record at a time
+     */
+    private static class MappedMovieSpliterator
+            extends Spliterators.AbstractSpliterator<MovieDataInterface> {
+        private final MappedMovieParser parser;
+        private long nextRecord; // offset of the first record that was not parsed
+        private MovieData parsed; // the movie of the record that was parsed last, if any
+
+        private MappedMovieSpliterator(MappedMovieParser parser) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.parser = parser;
+            this.nextRecord = parser.dataStart();
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super MovieDataInterface> action) {
+            try {
+                // parsing the records one by one, skipping those that do not hold a movie
+                while (nextRecord < parser.size()) {
+                    parsed = null;
+                    nextRecord = parser.parse(nextRecord, nextRecord + 1,
+                            movie -> parsed = movie);
+                    if (parsed != null) {
+                        action.accept(parsed);
+                        return true;
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Helper method that reads in the movies of a CSV file by splitting it into chunks which are
+     * parsed in parallel. The splits are moved forward to the next line break outside of quoted
+     * fields, which is found by counting the quotes in front of every split (in parallel as well).
+     * As this only guesses the record boundaries of malformed files, the chunks are checked
+     * while they are merged in file order: a chunk whose start is not where the previous chunk
+     * stopped is parsed again from there, so the result always equals a sequential parse.
+     *
+     * @param csvFilePath - path of the CSV file containing the movie data
+     * @param parser - a parser for the file, used for the chunks that are parsed again
+     * @param chunkCount - the number of chunks
+     * @return a list containing all the movies read in from the passed CSV file
+     * @throws IOException if the file cannot be read
+     */
+    private List<MovieDataInterface> loadFileInChunks(String csvFilePath,
+            MappedMovieParser parser, int chunkCount) throws IOException {
+        long dataStart = parser.dataStart();
+        long fileSize = parser.size();
+        long[] splits = new long[chunkCount + 1];
+        for (int i = 0; i <= chunkCount; ++i) {
+            splits[i] = dataStart + (fileSize - dataStart) * i / chunkCount;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            // counting the quotes in every chunk tells whether a split lies within quotes
+            List<Callable<Long>> quoteCounts = new ArrayList<Callable<Long>>(chunkCount);
+            for (int i = 0; i < chunkCount; ++i) {
+                long start = splits[i];
+                long end = splits[i + 1];
+                quoteCounts.add(() -> {
+                    try (MappedMovieParser chunkParser =
+                            new MappedMovieParser(csvFilePath, charset)) {
+                        return chunkParser.countQuotes(start, end);
+                    }
+                });
+            }
+            boolean[] insideQuotes = new boolean[chunkCount + 1];
+            List<Future<Long>> counted = pool.invokeAll(quoteCounts);
+            for (int i = 0; i < chunkCount; ++i) {
+                insideQuotes[i + 1] = insideQuotes[i] ^ (getChunkResult(counted.get(i)) % 2 == 1);
+            }
+
+            // every chunk moves its own splits to the next record and parses the records between
+            List<Callable<ParsedChunk>> chunkParses = new ArrayList<Callable<ParsedChunk>>();
+            for (int i = 0; i < chunkCount; ++i) {
+                long split = splits[i];
+                long nextSplit = splits[i + 1];
+                boolean startInsideQuotes = insideQuotes[i];
+                boolean endInsideQuotes = insideQuotes[i + 1];
+                boolean last = i == chunkCount - 1;
+                chunkParses.add(() -> {
+                    try (MappedMovieParser chunkParser =
+                            new MappedMovieParser(csvFilePath, charset)) {
+                        long start = split == dataStart ? dataStart
+                                : chunkParser.nextRecordStart(split, startInsideQuotes);
+                        long end = last ? fileSize
+                                : chunkParser.nextRecordStart(nextSplit, endInsideQuotes);
+                        ParsedChunk chunk = new ParsedChunk(start, end);
+                        try {
+                            chunk.stop = chunkParser.parse(start, end, chunk.movies::add);
+                        } catch (IOException e) {
+                            // a wrongly guessed start; the chunk is parsed again while merging
+                            chunk.start = -1;
+                        }
+                        return chunk;
+                    }
+                });
+            }
+            List<ParsedChunk> chunks = new ArrayList<ParsedChunk>(chunkCount);
+            int movieCount = 0;
+            for (Future<ParsedChunk> parsed : pool.invokeAll(chunkParses)) {
+                ParsedChunk chunk = getChunkResult(parsed);
+                chunks.add(chunk);
+                movieCount += chunk.movies.size();
+            }
+
+            // merging the chunks in file order
+            List<MovieDataInterface> moviesList = new ArrayList<MovieDataInterface>(movieCount);
+            long expectedStart = dataStart;
+            for (ParsedChunk chunk : chunks) {
+                if (chunk.start == expectedStart) {
+                    moviesList.addAll(chunk.movies);
+                    expectedStart = chunk.stop;
+                } else {
+                    expectedStart = parser.parse(expectedStart, chunk.end, moviesList::add);
+                }
+            }
+            return moviesList;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Helper method that waits for the result of a chunk, passing on its IOException
+     */
+    private static <V> V getChunkResult(Future<V> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while loading chunks");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * The movies of a chunk of a CSV file which have been parsed by a single thread
+     */
+    private static class ParsedChunk {
+        private long start; // offset of the chunk's first record, -1 if the chunk failed
+        private final long end; // offset at which the chunk stopped starting records
+        private long stop; // offset of the first record that was not parsed
+        private final List<MovieData> movies = new ArrayList<MovieData>();
+
+        private ParsedChunk(long start, long end) {
+            this.start = start;
+            this.end = end;
+            this.stop = start;
+        }
+    }
+
+    /**
+     * Helper method that finds the index of a column within the header of a CSV file
+     *
+     * @param tokenizer - the tokenizer whose current record is the header
+     * @param columnName - the name of the column
+     * @return the index of the column
+     * @throws IllegalArgumentException if the header does not contain the column
+     */
+    private static int findColumn(CsvTokenizer tokenizer, String columnName) {
+        for (int i = 0; i < tokenizer.fieldCount(); ++i) {
+            if (columnName.contentEquals(tokenizer.field(i))) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("The CSV file has no " + columnName + " column");
+    }
+
+    /**
+     * Helper method that creates a MovieData instance out of the fields of a single row
+     *
+     * @param title - the title field
+     * @param genre - the genre field
+     * @param premiere - the premiere field, such as "August 5, 2019"
+     * @param rating - the IMDB score field
+     * @return the movie, or null if a field is missing or the year or rating cannot be read
+     */
+    static MovieData createMovie(CharSequence title, CharSequence genre, CharSequence premiere,
+            CharSequence rating) {
+        if (title == null || genre == null || premiere == null || rating == null) {
+            return null;
+        }
+        int year = parseYear(premiere);
+        double score = parseRating(rating);
+        if (year == -1 || Double.isNaN(score)) {
+            return null;
+        }
+        return new MovieData(title.toString(), score, year, genre.toString());
+    }
+
+    /**
+     * Helper method that reads the year out of a premiere date, which is given by its last four
+     * characters (e.g. "August 5, 2019")
+     *
+     * @param premiere - the premiere field
+     * @return the year, or -1 if the field does not end with four digits
+     */
+    static int parseYear(CharSequence premiere) {
+        int end = premiere.length();
+        while (end > 0 && premiere.charAt(end - 1) == ' ') {
+            end--;
+        }
+        if (end < 4) {
+            return -1;
+        }
+        int year = 0;
+        for (int i = end - 4; i < end; ++i) {
+            char c = premiere.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            year = year * 10 + (c - '0');
+        }
+        return year;
+    }
+
+    /**
+     * Helper method that reads a rating such as "7.5". Plain decimal numbers of up to 15 digits
+     * are computed directly from the characters, which gives exactly the value of
+     * Double.parseDouble since both the digits and the power of ten are exact doubles; anything
+     * else is passed on to Double.parseDouble.
+     *
+     * @param rating - the IMDB score field
+     * @return the rating, or NaN if the field is not a number
+     */
+    static double parseRating(CharSequence rating) {
+        long digits = 0;
+        int digitCount = 0;
+        int fractionDigits = -1; // -1 until the decimal point has been read
+        int length = rating.length();
+        for (int i = 0; i < length; ++i) {
+            char c = rating.charAt(i);
+            if (c >= '0' && c <= '9' && digitCount < 15) {
+                digits = digits * 10 + (c - '0');
+                digitCount++;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                return parseRatingSlowly(rating);
+            }
+        }
+        if (digitCount == 0) {
+            return Double.NaN;
+        }
+        return fractionDigits <= 0 ? digits : digits / POWERS_OF_TEN[fractionDigits];
+    }
+
+    private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8,
+            1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15 };
+
+    private static double parseRatingSlowly(CharSequence rating) {
+        try {
+            return Double.parseDouble(rating.toString().trim());
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
     }
 
     /**
@@ -158,28 +677,183 @@ public class MovieLoader implements MovieLoaderInterface {
      * @return a list containing all the movies with its respective data as read in
      *         from the CSV file(s) present in the passed directory
      * @throws FileNotFoundException if the directory does not exist at the
-     *                               specified path
+     *                               specified path, or if one of its CSV files
+     *                               cannot be found anymore
+     * @throws IllegalArgumentException if one of the CSV files lacks a column of a
+     *                                  movie
      */
     @Override
     public List<MovieDataInterface> loadFilesInDirectory(String directoryPath)
             throws FileNotFoundException {
-        List<MovieDataInterface> moviesList = new LinkedList<MovieDataInterface>();
+        DirectoryLoadResult result = loadDirectory(directoryPath, true);
+        // unlike loadDirectory, a single file which cannot be loaded fails the whole load
+        if (!result.getFailedFiles().isEmpty()) {
+            Map.Entry<String, Exception> failure =
+                    result.getFailedFiles().entrySet().iterator().next();
+            if (failure.getValue() instanceof RuntimeException) {
+                throw (RuntimeException) failure.getValue();
+            }
+            FileNotFoundException notLoaded =
+                    new FileNotFoundException(failure.getKey() + " could not be loaded");
+            notLoaded.initCause(failure.getValue());
+            throw notLoaded;
+        }
+        return result.getMovies();
+    }
+
+    /**
+     * This method reads in data about movies from the CSV file(s) in the passed directory. The
+     * files are loaded concurrently by up to parallelism threads, and a file which cannot be
+     * loaded does not stop the other files from being loaded: its error is reported within the
+     * result instead. The movies of all files are gathered into a single array-backed list.
+     *
+     * @param directoryPath - path to a directory containing CSV file(s) with movie data
+     * @param keepFileOrder - true to return the movies ordered by the names of their files (and
+     *                        by their position within a file), false to add the movies of each
+     *                        file as soon as it has been loaded
+     * @return the movies of the files that were loaded, and the errors of the files that were not
+     * @throws FileNotFoundException if the directory does not exist at the specified path
+     */
+    public DirectoryLoadResult loadDirectory(String directoryPath, boolean keepFileOrder)
+            throws FileNotFoundException {
         File[] movieFiles = new File(directoryPath).listFiles();
+        // if the files to be loaded do not exist, a file not found exception is thrown
+        if (movieFiles == null) {
+            throw new FileNotFoundException(directoryPath);
+        }
+        List<String> csvFilePaths = new ArrayList<String>();
+        for (File movieFile : movieFiles) {
+            String csvFilePath = movieFile.getAbsolutePath();
+            if (csvFilePath.endsWith("csv") && movieFile.isFile()) {
+                csvFilePaths.add(csvFilePath);
+            }
+        }
+        if (keepFileOrder) {
+            Collections.sort(csvFilePaths);
+        }
 
-        // we iterate over each of the files to be loaded and load each of them individually
-        // using the loadFile() method
-        if(!(movieFiles == null)) {
-            for (int i = 0; i < movieFiles.length; ++i) {
-                String csvFilePath = movieFiles[i].getAbsolutePath();
-                if (csvFilePath.endsWith("csv")) {
-                    moviesList.addAll(loadFile(csvFilePath));
+        // a single file may still be split into chunks, several files are loaded side by side
+        boolean splitLargeFiles = csvFilePaths.size() == 1;
+        Map<String, List<MovieDataInterface>> loadedFiles =
+                new LinkedHashMap<String, List<MovieDataInterface>>();
+        Map<String, Exception> failedFiles = new LinkedHashMap<String, Exception>();
+        int threads = Math.min(parallelism, csvFilePaths.size());
+        if (threads <= 1) {
+            for (String csvFilePath : csvFilePaths) {
+                try {
+                    loadedFiles.put(csvFilePath, loadFile(csvFilePath, splitLargeFiles));
+                } catch (Exception e) {
+                    failedFiles.put(csvFilePath, e);
                 }
             }
-            return moviesList;
+        } else {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                CompletionService<List<MovieDataInterface>> completion =
+                        new ExecutorCompletionService<List<MovieDataInterface>>(executor);
+                Map<Future<List<MovieDataInterface>>, String> pendingFiles =
+                        new HashMap<Future<List<MovieDataInterface>>, String>();
+                for (String csvFilePath : csvFilePaths) {
+                    pendingFiles.put(completion.submit(() -> loadFile(csvFilePath, false)),
+                            csvFilePath);
+                    if (keepFileOrder) {
+                        // reserves the file's position within the map
+                        loadedFiles.put(csvFilePath, null);
+                    }
+                }
+                for (int i = 0; i < csvFilePaths.size(); ++i) {
+                    Future<List<MovieDataInterface>> loaded = completion.take();
+                    String csvFilePath = pendingFiles.get(loaded);
+                    try {
+                        loadedFiles.put(csvFilePath, loaded.get());
+                    } catch (ExecutionException e) {
+                        loadedFiles.remove(csvFilePath);
+                        failedFiles.put(csvFilePath, e.getCause() instanceof Exception
+                                ? (Exception) e.getCause() : e);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while loading " + directoryPath, e);
+            } finally {
+                executor.shutdownNow();
+            }
         }
-        // if the files to be loaded do not exist, a file not found exception is thrown
-        else {
-            throw new FileNotFoundException();
+
+        int movieCount = 0;
+        for (List<MovieDataInterface> movies : loadedFiles.values()) {
+            movieCount += movies.size();
+        }
+        List<MovieDataInterface> moviesList = new ArrayList<MovieDataInterface>(movieCount);
+        for (List<MovieDataInterface> movies : loadedFiles.values()) {
+            moviesList.addAll(movies);
+        }
+        return new DirectoryLoadResult(moviesList, failedFiles);
+    }
+
+    /**
+     * This method reads in the movies of the CSV file(s) in the passed directory like
+     * loadFilesInDirectory does, and builds a RedBlackTree out of them in linear time instead of
+     * inserting them one by one
+     *
+     * @param directoryPath - path to a directory containing CSV file(s) with movie data
+     * @param duplicatePolicy - decides which movie is kept when two movies have the same rating
+     *                          and title
+     * @return a RedBlackTree holding the movies of the CSV files in the directory
+     * @throws FileNotFoundException if the directory does not exist at the specified path, or
+     *                               if one of its CSV files cannot be found anymore
+     * @throws IllegalArgumentException if one of the CSV files lacks a column of a movie
+     */
+    public RedBlackTree<MovieData> loadTree(String directoryPath,
+            RedBlackTree.DuplicatePolicy duplicatePolicy) throws FileNotFoundException {
+        return MovieData.buildTree(loadFilesInDirectory(directoryPath), duplicatePolicy);
+    }
+
+    /**
+     * This method reads in the movies of the passed CSV file straight into a columnar
+     * MovieStore, which holds them in a fraction of the memory of a list of MovieData objects
+     *
+     * @param csvFilePath - path of the CSV file containing the movie data
+     * @return a MovieStore holding the movies of the file in file order
+     * @throws FileNotFoundException if the CSV file does not exist at the specified path
+     */
+    public MovieStore loadStore(String csvFilePath) throws FileNotFoundException {
+        MovieStore store = new MovieStore();
+        load(csvFilePath, store::add);
+        store.trimToSize();
+        return store;
+    }
+
+    /**
+     * The outcome of loading the CSV file(s) of a directory: the movies of the files that were
+     * loaded, and the error of each file that could not be loaded
+     */
+    public static class DirectoryLoadResult {
+        private final List<MovieDataInterface> movies;
+        private final Map<String, Exception> failedFiles;
+
+        private DirectoryLoadResult(List<MovieDataInterface> movies,
+                Map<String, Exception> failedFiles) {
+            this.movies = movies;
+            this.failedFiles = Collections.unmodifiableMap(failedFiles);
+        }
+
+        /**
+         * This method returns the movies of the files that were loaded
+         *
+         * @return the movies of the files that were loaded
+         */
+        public List<MovieDataInterface> getMovies() {
+            return movies;
+        }
+
+        /**
+         * This method returns the files that could not be loaded
+         *
+         * @return a map from the path of each file that could not be loaded to its error
+         */
+        public Map<String, Exception> getFailedFiles() {
+            return failedFiles;
         }
     }
 }
@@ -203,4 +877,13 @@ class MovieLoaderPlaceholder implements MovieLoaderInterface {
         list.add(new MovieDataPlaceholderC());
         return list;
     }
+
+    public void load(String csvFilePath, Consumer<? super MovieDataInterface> sink)
+            throws FileNotFoundException {
+        loadFile(csvFilePath).forEach(sink);
+    }
+
+    public Stream<MovieDataInterface> stream(String csvFilePath) throws FileNotFoundException {
+        return loadFile(csvFilePath).stream();
+    }
 }
\ No newline at end of file
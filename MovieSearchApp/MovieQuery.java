@@ -0,0 +1,160 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * This class describes a search for movies: a rating range, a set of genre tokens, a range of
+ * publishing years, and the largest number of results. Its criteria are normalized when it is
+ * created, so that searches asking for the same movies are equal to each other and can share a
+ * cached result, e.g. the genres "Drama/Comedy" and "comedy drama" both become the tokens
+ * [comedy, drama].
+ *
+ * A search returns the best rated matching movies first, as a search for "the top 10
+ * documentaries" expects.
+ */
+public class MovieQuery {
+	private final double lowestRating;
+	private final double highestRating;
+	private final List<String> genreTokens; // sorted and distinct, empty for every genre
+	private final int firstYear;
+	private final int lastYear;
+	private final int limit;
+
+	/**
+	 * Constructor method so as to create a MovieQuery
+	 *
+	 * @param lowestRating - the lowest rating to be included
+	 * @param highestRating - the highest rating to be included
+	 * @param genre - the genre whose tokens a movie's genre has to contain, such as
+	 *                "documentary", or null for every genre
+	 * @param firstYear - the first publishing year to be included
+	 * @param lastYear - the last publishing year to be included
+	 * @param limit - the largest number of movies to be found
+	 * @throws IllegalArgumentException if a rating is not a number or limit is negative
+	 */
+	public MovieQuery(double lowestRating, double highestRating, String genre, int firstYear,
+			int lastYear, int limit) {
+		if (Double.isNaN(lowestRating) || Double.isNaN(highestRating)) {
+			throw new IllegalArgumentException("The ratings of a query have to be numbers");
+		}
+		if (limit < 0) {
+			throw new IllegalArgumentException("limit cannot be negative");
+		}
+		// adding 0.0 turns -0.0 into 0.0, which compares equal to it anyway
+		this.lowestRating = lowestRating + 0.0;
+		this.highestRating = highestRating + 0.0;
+		this.genreTokens = genre == null ? Collections.<String>emptyList()
+				: Collections.unmodifiableList(
+						new ArrayList<String>(new TreeSet<String>(GenreIndex.tokens(genre))));
+		this.firstYear = firstYear;
+		this.lastYear = lastYear;
+		this.limit = limit;
+	}
+
+	/**
+	 * This method creates a MovieQuery for the best rated movies of a genre, published in any
+	 * year
+	 *
+	 * @param genre - the genre of the movies, or null for every genre
+	 * @param lowestRating - the lowest rating to be included
+	 * @param limit - the largest number of movies to be found
+	 * @return the query
+	 */
+	public static MovieQuery ratedAtLeast(String genre, double lowestRating, int limit) {
+		return new MovieQuery(lowestRating, Double.POSITIVE_INFINITY, genre, Integer.MIN_VALUE,
+				Integer.MAX_VALUE, limit);
+	}
+
+	/**
+	 * This method checks whether a movie meets the criteria of this query
+	 *
+	 * @param movie - the movie to be checked
+	 * @return true if the movie's rating, year, and genre lie within the criteria
+	 */
+	public boolean matches(MovieData movie) {
+		if (movie.getRating() < lowestRating || movie.getRating() > highestRating
+				|| movie.getYear() < firstYear || movie.getYear() > lastYear) {
+			return false;
+		}
+		return genreTokens.isEmpty()
+				|| GenreIndex.tokens(movie.getGenre()).containsAll(genreTokens);
+	}
+
+	/**
+	 * This method runs the query against a tree of movies. The tree is walked downwards from the
+	 * highest rating of the query and the walk stops at its lowest rating or once limit movies
+	 * are found, so movies outside the rating range are never visited.
+	 *
+	 * @param tree - the movies to be searched
+	 * @return up to limit matching movies, best rated first
+	 */
+	public List<MovieData> run(RedBlackTree<MovieData> tree) {
+		List<MovieData> found = new ArrayList<MovieData>(Math.min(limit, 16));
+		if (limit == 0 || lowestRating > highestRating) {
+			return found;
+		}
+		Iterator<MovieData> movies = highestRating == Double.POSITIVE_INFINITY
+				? tree.descendingIterator()
+				: tree.descendingIterator(MovieData.ratingUpperBound(highestRating));
+		while (movies.hasNext() && found.size() < limit) {
+			MovieData movie = movies.next();
+			if (movie.getRating() < lowestRating) {
+				break;
+			}
+			if (matches(movie)) {
+				found.add(movie);
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * This method returns the largest number of movies to be found
+	 *
+	 * @return the limit of the query
+	 */
+	public int getLimit() {
+		return limit;
+	}
+
+	/**
+	 * This method returns the genre tokens a movie's genre has to contain
+	 *
+	 * @return the sorted genre tokens, empty if every genre is included
+	 */
+	public List<String> getGenreTokens() {
+		return genreTokens;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof MovieQuery)) {
+			return false;
+		}
+		MovieQuery query = (MovieQuery) other;
+		return lowestRating == query.lowestRating && highestRating == query.highestRating
+				&& firstYear == query.firstYear && lastYear == query.lastYear
+				&& limit == query.limit && genreTokens.equals(query.genreTokens);
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = Double.hashCode(lowestRating);
+		hash = 31 * hash + Double.hashCode(highestRating);
+		hash = 31 * hash + genreTokens.hashCode();
+		hash = 31 * hash + firstYear;
+		hash = 31 * hash + lastYear;
+		return 31 * hash + limit;
+	}
+
+	@Override
+	public String toString() {
+		return "MovieQuery[rating " + lowestRating + ".." + highestRating + ", genre "
+				+ genreTokens + ", year " + firstYear + ".." + lastYear + ", limit " + limit + "]";
+	}
+}
@@ -0,0 +1,364 @@
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * This class stores the data of many movies column by column instead of one MovieData object per
+ * movie: the ratings and years are kept in primitive arrays, every genre is stored once within a
+ * dictionary that the movies refer to by id, and the titles are packed as UTF-8 bytes into a
+ * single array. A movie is identified by its ordinal, the position in which it was added, and can
+ * be read through a lightweight MovieDataInterface view so that existing callers keep working.
+ */
+public class MovieStore implements Iterable<MovieDataInterface> {
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private double[] ratings;
+	private short[] years;
+	private int[] genreIds;
+	// the title of the movie with ordinal i is stored in titleBytes[titleOffsets[i]] up to
+	// titleBytes[titleOffsets[i + 1]]
+	private int[] titleOffsets;
+	private byte[] titleBytes;
+	private int size;
+
+	private final List<String> genres = new ArrayList<String>();
+	private final Map<String, Integer> genreDictionary = new HashMap<String, Integer>();
+
+	/**
+	 * Constructor method so as to create an empty MovieStore
+	 */
+	public MovieStore() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor method so as to create an empty MovieStore which can hold the passed number of
+	 * movies before its arrays have to grow
+	 *
+	 * @param initialCapacity - the number of movies to make room for
+	 * @throws IllegalArgumentException if initialCapacity is negative
+	 */
+	public MovieStore(int initialCapacity) {
+		if (initialCapacity < 0) {
+			throw new IllegalArgumentException("The capacity cannot be negative");
+		}
+		ratings = new double[initialCapacity];
+		years = new short[initialCapacity];
+		genreIds = new int[initialCapacity];
+		titleOffsets = new int[initialCapacity + 1];
+		// assuming titles of about 16 bytes
+		titleBytes = new byte[Math.max(DEFAULT_CAPACITY, initialCapacity * 16)];
+	}
+
+	/**
+	 * This method creates a MovieStore holding the passed movies, such as the list returned by
+	 * MovieLoader, in the same order
+	 *
+	 * @param movies - the movies to be stored
+	 * @return a MovieStore holding the passed movies
+	 */
+	public static MovieStore of(List<? extends MovieDataInterface> movies) {
+		MovieStore store = new MovieStore(movies.size());
+		for (MovieDataInterface movie : movies) {
+			store.add(movie);
+		}
+		return store;
+	}
+
+	/**
+	 * This method adds a copy of the passed movie to the store
+	 *
+	 * @param movie - the movie to be added
+	 * @return the ordinal of the added movie
+	 * @throws NullPointerException if movie, its title or its genre is null
+	 * @throws IllegalArgumentException if the year of the movie does not fit into a short
+	 */
+	public int add(MovieDataInterface movie) {
+		return add(movie.getTitle(), movie.getRating(), movie.getYear(), movie.getGenre());
+	}
+
+	/**
+	 * This method adds a movie with the passed title, rating, year, and genre to the store
+	 *
+	 * @param title - the title of the movie
+	 * @param rating - the rating of the movie
+	 * @param year - the year in which the movie was released
+	 * @param genre - the genre of the movie
+	 * @return the ordinal of the added movie
+	 * @throws NullPointerException if title or genre is null
+	 * @throws IllegalArgumentException if year does not fit into a short
+	 */
+	public int add(String title, double rating, int year, String genre) {
+		if (title == null || genre == null) {
+			throw new NullPointerException("This MovieStore cannot store null titles or genres.");
+		}
+		if (year < Short.MIN_VALUE || year > Short.MAX_VALUE) {
+			throw new IllegalArgumentException("The year " + year + " cannot be stored.");
+		}
+		if (size == ratings.length) {
+			grow();
+		}
+		byte[] encodedTitle = title.getBytes(StandardCharsets.UTF_8);
+		int titleStart = titleOffsets[size];
+		if (encodedTitle.length > titleBytes.length - titleStart) {
+			growTitleBytes(encodedTitle.length);
+		}
+		System.arraycopy(encodedTitle, 0, titleBytes, titleStart, encodedTitle.length);
+
+		ratings[size] = rating;
+		years[size] = (short) year;
+		genreIds[size] = genreId(genre);
+		titleOffsets[size + 1] = titleStart + encodedTitle.length;
+		return size++;
+	}
+
+	/**
+	 * Helper method that looks up the id of a genre, adding it to the dictionary if it is new
+	 */
+	private int genreId(String genre) {
+		Integer id = genreDictionary.get(genre);
+		if (id == null) {
+			id = genres.size();
+			genres.add(genre);
+			genreDictionary.put(genre, id);
+		}
+		return id;
+	}
+
+	/**
+	 * Helper method that doubles the capacity of the per-movie arrays
+	 */
+	private void grow() {
+		int capacity = Math.max(DEFAULT_CAPACITY, ratings.length * 2);
+		ratings = Arrays.copyOf(ratings, capacity);
+		years = Arrays.copyOf(years, capacity);
+		genreIds = Arrays.copyOf(genreIds, capacity);
+		titleOffsets = Arrays.copyOf(titleOffsets, capacity + 1);
+	}
+
+	/**
+	 * Helper method that grows the title bytes so that the passed number of bytes fits behind
+	 * the titles stored so far
+	 *
+	 * @throws IllegalStateException if the titles would no longer fit into a single array
+	 */
+	private void growTitleBytes(int additionalBytes) {
+		long required = (long) titleOffsets[size] + additionalBytes;
+		if (required > Integer.MAX_VALUE - 8) {
+			throw new IllegalStateException("This MovieStore cannot store any more titles.");
+		}
+		long capacity = Math.max(required, Math.min(2L * titleBytes.length, Integer.MAX_VALUE - 8));
+		titleBytes = Arrays.copyOf(titleBytes, (int) capacity);
+	}
+
+	/**
+	 * This method shrinks the arrays of the store to the movies it holds, once no more movies
+	 * are going to be added
+	 */
+	public void trimToSize() {
+		ratings = Arrays.copyOf(ratings, size);
+		years = Arrays.copyOf(years, size);
+		genreIds = Arrays.copyOf(genreIds, size);
+		titleOffsets = Arrays.copyOf(titleOffsets, size + 1);
+		titleBytes = Arrays.copyOf(titleBytes, titleOffsets[size]);
+	}
+
+	/**
+	 * This method returns the number of movies in the store
+	 *
+	 * @return the number of movies in the store
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * This method checks whether the store holds any movies
+	 *
+	 * @return true if the store holds no movies, false otherwise
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * This method returns a view of the movie with the passed ordinal. The view does not copy
+	 * the movie's data but reads it from the store whenever one of its methods is called.
+	 *
+	 * @param ordinal - the ordinal of the movie
+	 * @return a view of the movie
+	 * @throws IndexOutOfBoundsException if no movie has the passed ordinal
+	 */
+	public MovieDataInterface get(int ordinal) {
+		checkOrdinal(ordinal);
+		return new MovieView(this, ordinal);
+	}
+
+	/**
+	 * This method returns the title of the movie with the passed ordinal
+	 *
+	 * @param ordinal - the ordinal of the movie
+	 * @return the movie's title
+	 * @throws IndexOutOfBoundsException if no movie has the passed ordinal
+	 */
+	public String getTitle(int ordinal) {
+		checkOrdinal(ordinal);
+		int start = titleOffsets[ordinal];
+		return new String(titleBytes, start, titleOffsets[ordinal + 1] - start,
+				StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * This method returns the rating of the movie with the passed ordinal
+	 *
+	 * @param ordinal - the ordinal of the movie
+	 * @return the movie's rating
+	 * @throws IndexOutOfBoundsException if no movie has the passed ordinal
+	 */
+	public double getRating(int ordinal) {
+		checkOrdinal(ordinal);
+		return ratings[ordinal];
+	}
+
+	/**
+	 * This method returns the publishing year of the movie with the passed ordinal
+	 *
+	 * @param ordinal - the ordinal of the movie
+	 * @return the movie's publishing year
+	 * @throws IndexOutOfBoundsException if no movie has the passed ordinal
+	 */
+	public int getYear(int ordinal) {
+		checkOrdinal(ordinal);
+		return years[ordinal];
+	}
+
+	/**
+	 * This method returns the genre of the movie with the passed ordinal
+	 *
+	 * @param ordinal - the ordinal of the movie
+	 * @return the movie's genre
+	 * @throws IndexOutOfBoundsException if no movie has the passed ordinal
+	 */
+	public String getGenre(int ordinal) {
+		checkOrdinal(ordinal);
+		return genres.get(genreIds[ordinal]);
+	}
+
+	/**
+	 * This method returns the id of the genre of the movie with the passed ordinal, which allows
+	 * movies to be grouped by genre without comparing strings
+	 *
+	 * @param ordinal - the ordinal of the movie
+	 * @return the id of the movie's genre within the genre dictionary
+	 * @throws IndexOutOfBoundsException if no movie has the passed ordinal
+	 */
+	public int getGenreId(int ordinal) {
+		checkOrdinal(ordinal);
+		return genreIds[ordinal];
+	}
+
+	/**
+	 * This method returns the number of distinct genres in the store
+	 *
+	 * @return the number of entries in the genre dictionary
+	 */
+	public int genreCount() {
+		return genres.size();
+	}
+
+	/**
+	 * This method returns the genre with the passed id
+	 *
+	 * @param genreId - the id of the genre within the genre dictionary
+	 * @return the genre
+	 * @throws IndexOutOfBoundsException if no genre has the passed id
+	 */
+	public String genre(int genreId) {
+		return genres.get(genreId);
+	}
+
+	/**
+	 * This method returns the id of the passed genre
+	 *
+	 * @param genre - the genre
+	 * @return the id of the genre within the genre dictionary, or -1 if no movie has the genre
+	 */
+	public int genreIdOf(String genre) {
+		Integer id = genreDictionary.get(genre);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * Helper method that checks whether a movie with the passed ordinal exists
+	 */
+	private void checkOrdinal(int ordinal) {
+		if (ordinal < 0 || ordinal >= size) {
+			throw new IndexOutOfBoundsException("Ordinal " + ordinal + ", size " + size);
+		}
+	}
+
+	/**
+	 * This method returns an iterator over views of the movies in the order in which they were
+	 * added
+	 *
+	 * @return an iterator over the movies of the store
+	 */
+	@Override
+	public Iterator<MovieDataInterface> iterator() {
+		return new Iterator<MovieDataInterface>() {
+			private int nextOrdinal = 0;
+
+			@Override
+			public boolean hasNext() {
+				return nextOrdinal < size;
+			}
+
+			@Override
+			public MovieDataInterface next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException(
+							"There are no more movies in this MovieStore.");
+				}
+				return new MovieView(MovieStore.this, nextOrdinal++);
+			}
+		};
+	}
+
+	/**
+	 * A view of a single movie of a MovieStore, which holds nothing but the movie's ordinal
+	 */
+	private static class MovieView implements MovieDataInterface {
+		private final MovieStore store;
+		private final int ordinal;
+
+		private MovieView(MovieStore store, int ordinal) {
+			this.store = store;
+			this.ordinal = ordinal;
+		}
+
+		@Override
+		public String getTitle() {
+			return store.getTitle(ordinal);
+		}
+
+		@Override
+		public double getRating() {
+			return store.getRating(ordinal);
+		}
+
+		@Override
+		public int getYear() {
+			return store.getYear(ordinal);
+		}
+
+		@Override
+		public String getGenre() {
+			return store.getGenre(ordinal);
+		}
+	}
+}
@@ -0,0 +1,580 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * This class implements a compressed set of non-negative ints, such as the ordinals of the movies
+ * having a certain genre, in the way of a roaring bitmap. The ints are grouped by their upper 16
+ * bits into chunks of 65536 values, and every chunk stores its lower 16 bits within a container:
+ * a sorted array of chars while the chunk holds at most 4096 values, and a bitmap of 65536 bits
+ * otherwise. Sparse sets thus take 2 bytes per value and dense sets 1 bit per value, and the set
+ * operations combine two sets chunk by chunk, with a cost proportional to the sizes of the
+ * containers involved instead of to the range of the values.
+ */
+public class OrdinalBitmap {
+	// a chunk holding more values than this is stored as a bitmap, which then takes less space
+	private static final int MAX_ARRAY_SIZE = 4096;
+	private static final int BITMAP_WORDS = 65536 / 64;
+
+	private int[] keys = new int[4]; // the upper 16 bits of the values of each chunk, sorted
+	private Container[] containers = new Container[4]; // the lower 16 bits of each chunk
+	private int chunkCount;
+
+	/**
+	 * Constructor method so as to create an empty OrdinalBitmap
+	 */
+	public OrdinalBitmap() {
+	}
+
+	/**
+	 * This method creates an OrdinalBitmap holding the passed values
+	 *
+	 * @param values - the values to be stored
+	 * @return an OrdinalBitmap holding the passed values
+	 * @throws IllegalArgumentException if one of the values is negative
+	 */
+	public static OrdinalBitmap of(int... values) {
+		OrdinalBitmap bitmap = new OrdinalBitmap();
+		for (int value : values) {
+			bitmap.add(value);
+		}
+		return bitmap;
+	}
+
+	/**
+	 * This method creates an OrdinalBitmap holding every value from the passed range
+	 *
+	 * @param from - the smallest value to be stored
+	 * @param to - the value right after the largest value to be stored
+	 * @return an OrdinalBitmap holding every value greater than or equal to from and smaller
+	 *         than to
+	 * @throws IllegalArgumentException if from is negative
+	 */
+	public static OrdinalBitmap range(int from, int to) {
+		checkValue(from);
+		OrdinalBitmap bitmap = new OrdinalBitmap();
+		for (int chunkStart = from & ~0xffff; chunkStart < to; chunkStart += 65536) {
+			int low = Math.max(from, chunkStart) - chunkStart;
+			int high = (int) Math.min(to, chunkStart + 65536L) - chunkStart;
+			long[] words = new long[BITMAP_WORDS];
+			for (int i = low; i < high; ++i) {
+				words[i >>> 6] |= 1L << i;
+			}
+			bitmap.append(chunkStart >>> 16, Container.of(words));
+			if (chunkStart > Integer.MAX_VALUE - 65536) {
+				break;
+			}
+		}
+		return bitmap;
+	}
+
+	/**
+	 * This method adds a value to the set
+	 *
+	 * @param value - the value to be added
+	 * @return true if the value was added, false if the set already held it
+	 * @throws IllegalArgumentException if value is negative
+	 */
+	public boolean add(int value) {
+		checkValue(value);
+		int key = value >>> 16;
+		int position = chunkCount > 0 && keys[chunkCount - 1] == key ? chunkCount - 1
+				: Arrays.binarySearch(keys, 0, chunkCount, key);
+		if (position < 0) {
+			position = -position - 1;
+			insertChunk(position, key, new ArrayContainer(new char[4], 0));
+		}
+		Container container = containers[position];
+		int cardinality = container.cardinality();
+		containers[position] = container.add((char) value);
+		return containers[position].cardinality() != cardinality;
+	}
+
+	/**
+	 * This method checks whether the set holds a value
+	 *
+	 * @param value - the value to look for
+	 * @return true if the set holds the value, false otherwise
+	 */
+	public boolean contains(int value) {
+		if (value < 0) {
+			return false;
+		}
+		int position = Arrays.binarySearch(keys, 0, chunkCount, value >>> 16);
+		return position >= 0 && containers[position].contains((char) value);
+	}
+
+	/**
+	 * This method returns the number of values in the set
+	 *
+	 * @return the number of values in the set
+	 */
+	public int cardinality() {
+		int cardinality = 0;
+		for (int i = 0; i < chunkCount; ++i) {
+			cardinality += containers[i].cardinality();
+		}
+		return cardinality;
+	}
+
+	/**
+	 * This method checks whether the set is empty
+	 *
+	 * @return true if the set does not hold any value, false otherwise
+	 */
+	public boolean isEmpty() {
+		return chunkCount == 0;
+	}
+
+	/**
+	 * This method returns the intersection of this set and the passed set
+	 *
+	 * @param other - the other set
+	 * @return a new set holding the values held by both sets
+	 */
+	public OrdinalBitmap and(OrdinalBitmap other) {
+		OrdinalBitmap result = new OrdinalBitmap();
+		int i = 0;
+		int j = 0;
+		while (i < chunkCount && j < other.chunkCount) {
+			if (keys[i] < other.keys[j]) {
+				i++;
+			} else if (keys[i] > other.keys[j]) {
+				j++;
+			} else {
+				result.append(keys[i], containers[i++].and(other.containers[j++]));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * This method returns the union of this set and the passed set
+	 *
+	 * @param other - the other set
+	 * @return a new set holding the values held by either set
+	 */
+	public OrdinalBitmap or(OrdinalBitmap other) {
+		OrdinalBitmap result = new OrdinalBitmap();
+		int i = 0;
+		int j = 0;
+		while (i < chunkCount || j < other.chunkCount) {
+			if (j == other.chunkCount || (i < chunkCount && keys[i] < other.keys[j])) {
+				result.append(keys[i], containers[i++].copy());
+			} else if (i == chunkCount || keys[i] > other.keys[j]) {
+				result.append(other.keys[j], other.containers[j++].copy());
+			} else {
+				result.append(keys[i], containers[i++].or(other.containers[j++]));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * This method returns the difference of this set and the passed set
+	 *
+	 * @param other - the other set
+	 * @return a new set holding the values held by this set but not by the other set
+	 */
+	public OrdinalBitmap andNot(OrdinalBitmap other) {
+		OrdinalBitmap result = new OrdinalBitmap();
+		int j = 0;
+		for (int i = 0; i < chunkCount; ++i) {
+			while (j < other.chunkCount && other.keys[j] < keys[i]) {
+				j++;
+			}
+			if (j < other.chunkCount && other.keys[j] == keys[i]) {
+				result.append(keys[i], containers[i].andNot(other.containers[j]));
+			} else {
+				result.append(keys[i], containers[i].copy());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * This method returns an iterator over the values of the set in ascending order. The set
+	 * must not be modified while the iterator is in use.
+	 *
+	 * @return an iterator over the values of the set
+	 */
+	public PrimitiveIterator.OfInt iterator() {
+		return rangeIterator(0, 1L << 31);
+	}
+
+	/**
+	 * This method returns an iterator over the values of the set which are greater than or equal
+	 * to from and smaller than to, in ascending order. Only the chunks overlapping the range are
+	 * visited, so the cost depends on the number of values within the range rather than on the
+	 * size of the set. The set must not be modified while the iterator is in use.
+	 *
+	 * @param from - the smallest value to be returned
+	 * @param to - the value right after the largest value to be returned
+	 * @return an iterator over the values of the set within the range
+	 */
+	public PrimitiveIterator.OfInt iterator(int from, int to) {
+		return rangeIterator(from, to);
+	}
+
+	/**
+	 * Helper method that returns an iterator over the values of the set within a range, whose
+	 * end is a long so that the range can include Integer.MAX_VALUE
+	 */
+	private PrimitiveIterator.OfInt rangeIterator(int from, long to) {
+		return new PrimitiveIterator.OfInt() {
+			private int chunk = startChunk();
+			private int next = advance(Math.max(from, 0));
+
+			private int startChunk() {
+				int position = Arrays.binarySearch(keys, 0, chunkCount, Math.max(from, 0) >>> 16);
+				return position >= 0 ? position : -position - 1;
+			}
+
+			/**
+			 * Helper method that finds the smallest value of the set which is at least the
+			 * passed value, or -1 if there is none within the range
+			 */
+			private int advance(int value) {
+				for (; chunk < chunkCount; ++chunk) {
+					int chunkStart = keys[chunk] << 16;
+					int low = value > chunkStart ? value - chunkStart : 0;
+					int found = low > 0xffff ? -1 : containers[chunk].next(low);
+					if (found >= 0) {
+						int nextValue = chunkStart | found;
+						return nextValue < to ? nextValue : -1;
+					}
+				}
+				return -1;
+			}
+
+			@Override
+			public boolean hasNext() {
+				return next >= 0;
+			}
+
+			@Override
+			public int nextInt() {
+				if (next < 0) {
+					throw new NoSuchElementException("There are no more values in this range.");
+				}
+				int value = next;
+				next = value == Integer.MAX_VALUE ? -1 : advance(value + 1);
+				return value;
+			}
+		};
+	}
+
+	/**
+	 * This method returns the values of the set in ascending order
+	 *
+	 * @return an array holding the values of the set
+	 */
+	public int[] toArray() {
+		int[] values = new int[cardinality()];
+		PrimitiveIterator.OfInt iterator = iterator();
+		for (int i = 0; i < values.length; ++i) {
+			values[i] = iterator.nextInt();
+		}
+		return values;
+	}
+
+	/**
+	 * Helper method that makes sure that a value can be stored
+	 */
+	private static void checkValue(int value) {
+		if (value < 0) {
+			throw new IllegalArgumentException("An OrdinalBitmap cannot store negative values.");
+		}
+	}
+
+	/**
+	 * Helper method that appends a chunk after the chunks stored so far, unless it is empty
+	 */
+	private void append(int key, Container container) {
+		if (container.cardinality() > 0) {
+			insertChunk(chunkCount, key, container);
+		}
+	}
+
+	/**
+	 * Helper method that inserts a chunk at the passed position
+	 */
+	private void insertChunk(int position, int key, Container container) {
+		if (chunkCount == keys.length) {
+			keys = Arrays.copyOf(keys, chunkCount * 2);
+			containers = Arrays.copyOf(containers, chunkCount * 2);
+		}
+		System.arraycopy(keys, position, keys, position + 1, chunkCount - position);
+		System.arraycopy(containers, position, containers, position + 1, chunkCount - position);
+		keys[position] = key;
+		containers[position] = container;
+		chunkCount++;
+	}
+
+	/**
+	 * The lower 16 bits of the values of a single chunk. A container belongs to a single set,
+	 * as add modifies it in place, which is why the set operations copy the containers they
+	 * take over unchanged.
+	 */
+	private abstract static class Container {
+
+		/**
+		 * This method creates the smaller of the two containers for the values of a bitmap
+		 */
+		static Container of(long[] words) {
+			int cardinality = 0;
+			for (long word : words) {
+				cardinality += Long.bitCount(word);
+			}
+			if (cardinality > MAX_ARRAY_SIZE) {
+				return new BitmapContainer(words, cardinality);
+			}
+			char[] values = new char[cardinality];
+			int count = 0;
+			for (int i = 0; i < words.length; ++i) {
+				for (long word = words[i]; word != 0; word &= word - 1) {
+					values[count++] = (char) (i * 64 + Long.numberOfTrailingZeros(word));
+				}
+			}
+			return new ArrayContainer(values, cardinality);
+		}
+
+		abstract int cardinality();
+
+		abstract boolean contains(char value);
+
+		abstract Container copy();
+
+		/**
+		 * This method adds a value, returning the container now holding the values
+		 */
+		abstract Container add(char value);
+
+		/**
+		 * This method returns the smallest value which is at least low, or -1 if there is none
+		 */
+		abstract int next(int low);
+
+		/**
+		 * This method returns the values of the container as a bitmap
+		 */
+		abstract long[] toWords();
+
+		abstract Container and(Container other);
+
+		abstract Container or(Container other);
+
+		abstract Container andNot(Container other);
+	}
+
+	/**
+	 * A container storing up to MAX_ARRAY_SIZE values as a sorted array
+	 */
+	private static class ArrayContainer extends Container {
+		private char[] values;
+		private int cardinality;
+
+		private ArrayContainer(char[] values, int cardinality) {
+			this.values = values;
+			this.cardinality = cardinality;
+		}
+
+		@Override
+		int cardinality() {
+			return cardinality;
+		}
+
+		@Override
+		boolean contains(char value) {
+			return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+		}
+
+		@Override
+		Container copy() {
+			return new ArrayContainer(Arrays.copyOf(values, cardinality), cardinality);
+		}
+
+		@Override
+		Container add(char value) {
+			int position = cardinality > 0 && values[cardinality - 1] < value ? -cardinality - 1
+					: Arrays.binarySearch(values, 0, cardinality, value);
+			if (position >= 0) {
+				return this;
+			}
+			if (cardinality == MAX_ARRAY_SIZE) {
+				return new BitmapContainer(toWords(), cardinality).add(value);
+			}
+			position = -position - 1;
+			if (cardinality == values.length) {
+				int capacity = Math.min(MAX_ARRAY_SIZE, Math.max(4, cardinality * 2));
+				values = Arrays.copyOf(values, capacity);
+			}
+			System.arraycopy(values, position, values, position + 1, cardinality - position);
+			values[position] = value;
+			cardinality++;
+			return this;
+		}
+
+		@Override
+		int next(int low) {
+			int position = Arrays.binarySearch(values, 0, cardinality, (char) low);
+			if (position < 0) {
+				position = -position - 1;
+			}
+			return position < cardinality ? values[position] : -1;
+		}
+
+		@Override
+		long[] toWords() {
+			long[] words = new long[BITMAP_WORDS];
+			for (int i = 0; i < cardinality; ++i) {
+				words[values[i] >>> 6] |= 1L << values[i];
+			}
+			return words;
+		}
+
+		@Override
+		Container and(Container other) {
+			char[] result = new char[cardinality];
+			int count = 0;
+			for (int i = 0; i < cardinality; ++i) {
+				if (other.contains(values[i])) {
+					result[count++] = values[i];
+				}
+			}
+			return new ArrayContainer(result, count);
+		}
+
+		@Override
+		Container or(Container other) {
+			if (other instanceof BitmapContainer) {
+				return other.or(this);
+			}
+			ArrayContainer array = (ArrayContainer) other;
+			char[] result = new char[cardinality + array.cardinality];
+			int count = 0;
+			int i = 0;
+			int j = 0;
+			while (i < cardinality || j < array.cardinality) {
+				if (j == array.cardinality || (i < cardinality && values[i] < array.values[j])) {
+					result[count++] = values[i++];
+				} else if (i == cardinality || values[i] > array.values[j]) {
+					result[count++] = array.values[j++];
+				} else {
+					result[count++] = values[i++];
+					j++;
+				}
+			}
+			if (count > MAX_ARRAY_SIZE) {
+				return new ArrayContainer(result, count).toBitmap();
+			}
+			return new ArrayContainer(result, count);
+		}
+
+		@Override
+		Container andNot(Container other) {
+			char[] result = new char[cardinality];
+			int count = 0;
+			for (int i = 0; i < cardinality; ++i) {
+				if (!other.contains(values[i])) {
+					result[count++] = values[i];
+				}
+			}
+			return new ArrayContainer(result, count);
+		}
+
+		/**
+		 * Helper method that turns the values into a bitmap container, which may hold more than
+		 * MAX_ARRAY_SIZE values
+		 */
+		private Container toBitmap() {
+			return new BitmapContainer(toWords(), cardinality);
+		}
+	}
+
+	/**
+	 * A container storing more than MAX_ARRAY_SIZE values as a bitmap of 65536 bits
+	 */
+	private static class BitmapContainer extends Container {
+		private final long[] words;
+		private int cardinality;
+
+		private BitmapContainer(long[] words, int cardinality) {
+			this.words = words;
+			this.cardinality = cardinality;
+		}
+
+		@Override
+		int cardinality() {
+			return cardinality;
+		}
+
+		@Override
+		boolean contains(char value) {
+			return (words[value >>> 6] & (1L << value)) != 0;
+		}
+
+		@Override
+		Container copy() {
+			return new BitmapContainer(words.clone(), cardinality);
+		}
+
+		@Override
+		Container add(char value) {
+			if (!contains(value)) {
+				words[value >>> 6] |= 1L << value;
+				cardinality++;
+			}
+			return this;
+		}
+
+		@Override
+		int next(int low) {
+			int i = low >>> 6;
+			long word = words[i] & (-1L << low);
+			while (word == 0) {
+				if (++i == BITMAP_WORDS) {
+					return -1;
+				}
+				word = words[i];
+			}
+			return i * 64 + Long.numberOfTrailingZeros(word);
+		}
+
+		@Override
+		long[] toWords() {
+			return words.clone();
+		}
+
+		@Override
+		Container and(Container other) {
+			if (other instanceof ArrayContainer) {
+				return other.and(this);
+			}
+			long[] otherWords = ((BitmapContainer) other).words;
+			long[] result = new long[BITMAP_WORDS];
+			for (int i = 0; i < BITMAP_WORDS; ++i) {
+				result[i] = words[i] & otherWords[i];
+			}
+			return Container.of(result);
+		}
+
+		@Override
+		Container or(Container other) {
+			long[] result = other.toWords();
+			for (int i = 0; i < BITMAP_WORDS; ++i) {
+				result[i] |= words[i];
+			}
+			return Container.of(result);
+		}
+
+		@Override
+		Container andNot(Container other) {
+			long[] result = other.toWords();
+			for (int i = 0; i < BITMAP_WORDS; ++i) {
+				result[i] = words[i] & ~result[i];
+			}
+			return Container.of(result);
+		}
+	}
+}
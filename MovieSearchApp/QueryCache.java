@@ -0,0 +1,200 @@
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class caches the results of MovieQuery searches against a RedBlackTree of movies, so that
+ * popular searches are answered without walking the tree again. The cache is bounded both by its
+ * number of entries and by the estimated number of bytes of its entries, and evicts the least
+ * recently used entries first.
+ *
+ * The results are valid for a single version of a single tree. As soon as a search is made
+ * against another tree, such as a new snapshot of a ConcurrentCatalog after a reload, or after
+ * the tree has changed through insert, remove, or update, every entry is dropped.
+ *
+ * All methods may be called by many threads at the same time, as long as the searched tree is
+ * not changed by another thread meanwhile, e.g. because it is a snapshot of a ConcurrentCatalog.
+ * A missing result is computed outside of the cache's lock, so a slow search does not hold up
+ * the hits of other threads.
+ */
+public class QueryCache {
+	// estimated bytes of an entry besides its movies: the map entry, the query, and the list
+	private static final int ENTRY_OVERHEAD_BYTES = 160;
+	private static final int BYTES_PER_MOVIE = 8; // a reference within the result list
+
+	private final int maxEntries;
+	private final long maxBytes;
+	private final LinkedHashMap<MovieQuery, List<MovieData>> results =
+			new LinkedHashMap<MovieQuery, List<MovieData>>(16, 0.75f, true);
+	private long bytes; // the estimated bytes of all entries
+	private RedBlackTree<MovieData> tree; // the tree the entries were computed from
+	private long treeVersion; // the version of the tree the entries were computed from
+	private long hits;
+	private long misses;
+	private long evictions;
+	private long invalidations;
+
+	/**
+	 * Constructor method so as to create an empty QueryCache
+	 *
+	 * @param maxEntries - the largest number of results to be kept
+	 * @param maxBytes - the largest estimated number of bytes of the results to be kept
+	 * @throws IllegalArgumentException if maxEntries or maxBytes is negative
+	 */
+	public QueryCache(int maxEntries, long maxBytes) {
+		if (maxEntries < 0 || maxBytes < 0) {
+			throw new IllegalArgumentException("The bounds of a QueryCache cannot be negative");
+		}
+		this.maxEntries = maxEntries;
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * This method returns the result of a query against a tree, from the cache if the query has
+	 * been run against the same version of the tree before
+	 *
+	 * @param query - the query to be run
+	 * @param tree - the movies to be searched
+	 * @return the movies found by the query, best rated first, which must not be modified
+	 */
+	public List<MovieData> search(MovieQuery query, RedBlackTree<MovieData> tree) {
+		long version;
+		synchronized (this) {
+			version = tree.version();
+			validate(tree, version);
+			List<MovieData> cached = results.get(query);
+			if (cached != null) {
+				hits++;
+				return cached;
+			}
+			misses++;
+		}
+		List<MovieData> found = Collections.unmodifiableList(query.run(tree));
+		synchronized (this) {
+			// a result of an outdated tree would be dropped with the next search anyway
+			if (this.tree == tree && treeVersion == version && tree.version() == version
+					&& !results.containsKey(query)) {
+				results.put(query, found);
+				bytes += bytesOf(found);
+				evict();
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Helper method that drops every entry if they were computed from another tree or another
+	 * version of the tree
+	 */
+	private void validate(RedBlackTree<MovieData> tree, long version) {
+		if (this.tree != tree || treeVersion != version) {
+			if (!results.isEmpty()) {
+				invalidations++;
+			}
+			results.clear();
+			bytes = 0;
+			this.tree = tree;
+			treeVersion = version;
+		}
+	}
+
+	/**
+	 * Helper method that removes the least recently used entries until the cache is within its
+	 * bounds again
+	 */
+	private void evict() {
+		Iterator<Map.Entry<MovieQuery, List<MovieData>>> entries = results.entrySet().iterator();
+		while ((results.size() > maxEntries || bytes > maxBytes) && entries.hasNext()) {
+			bytes -= bytesOf(entries.next().getValue());
+			entries.remove();
+			evictions++;
+		}
+	}
+
+	private static long bytesOf(List<MovieData> result) {
+		return ENTRY_OVERHEAD_BYTES + (long) BYTES_PER_MOVIE * result.size();
+	}
+
+	/**
+	 * This method drops every entry, such as after the movies of a tree were changed in a way
+	 * the cache cannot notice
+	 */
+	public synchronized void clear() {
+		results.clear();
+		bytes = 0;
+		tree = null;
+	}
+
+	/**
+	 * This method returns the number of cached results
+	 *
+	 * @return the number of entries
+	 */
+	public synchronized int size() {
+		return results.size();
+	}
+
+	/**
+	 * This method returns the estimated number of bytes of the cached results
+	 *
+	 * @return the estimated bytes of all entries
+	 */
+	public synchronized long bytes() {
+		return bytes;
+	}
+
+	/**
+	 * This method returns the number of searches answered from the cache
+	 *
+	 * @return the number of hits
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * This method returns the number of searches that had to be run against the tree
+	 *
+	 * @return the number of misses
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * This method returns the number of entries removed to keep the cache within its bounds
+	 *
+	 * @return the number of evictions
+	 */
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * This method returns the number of times the entries were dropped because the tree changed
+	 *
+	 * @return the number of invalidations
+	 */
+	public synchronized long getInvalidations() {
+		return invalidations;
+	}
+
+	/**
+	 * This method returns the share of searches answered from the cache
+	 *
+	 * @return the hit rate between 0 and 1, or 0 if there were no searches yet
+	 */
+	public synchronized double hitRate() {
+		long searches = hits + misses;
+		return searches == 0 ? 0 : (double) hits / searches;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "QueryCache[" + results.size() + " entries, " + bytes + " bytes, " + hits
+				+ " hits, " + misses + " misses, " + evictions + " evictions, " + invalidations
+				+ " invalidations]";
+	}
+}
@@ -0,0 +1,385 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * This class implements a sorted index of movies by rating, which is kept outside of the Java
+ * heap. Every entry is a single long key packing the movie's rating and its ordinal (such as its
+ * ordinal within a MovieStore): the upper 32 bits hold the rating as a float whose bits are
+ * arranged so that they sort like the rating, the lower 32 bits hold the ordinal. Keys are thus
+ * ordered by rating first and ordinal second, and comparing two of them is a single comparison of
+ * longs instead of a call to MovieData.compareTo.
+ *
+ * The keys are stored in a sorted array within a direct ByteBuffer, so millions of movies add no
+ * objects for the garbage collector to trace. Inserted keys first go into a small sorted array on
+ * the heap, which is merged into the off-heap array whenever it is full; its capacity grows with
+ * the square root of the index size so that the cost of both the insertions and the merges stays
+ * low.
+ */
+public class RatingIndex {
+	private static final int MIN_PENDING_CAPACITY = 256;
+
+	private LongBuffer mainKeys; // sorted keys off the heap
+	private int mainSize;
+	private long[] pendingKeys = new long[MIN_PENDING_CAPACITY]; // sorted keys not yet merged
+	private int pendingSize;
+	private int modCount; // number of insertions, used to detect modification while iterating
+
+	/**
+	 * Constructor method so as to create an empty RatingIndex
+	 */
+	public RatingIndex() {
+		allocateMainKeys(0);
+	}
+
+	/**
+	 * This method creates a RatingIndex holding every movie of the passed store, keyed by its
+	 * rating and its ordinal within the store. The keys are sorted once and copied off the heap
+	 * in a single pass.
+	 *
+	 * @param store - the movies to be indexed
+	 * @return a RatingIndex holding the keys of all movies of the store
+	 * @throws IllegalArgumentException if a movie is not rated
+	 */
+	public static RatingIndex of(MovieStore store) {
+		long[] keys = new long[store.size()];
+		for (int ordinal = 0; ordinal < keys.length; ++ordinal) {
+			keys[ordinal] = key(store.getRating(ordinal), ordinal);
+		}
+		Arrays.sort(keys);
+		RatingIndex index = new RatingIndex();
+		index.allocateMainKeys(keys.length);
+		index.mainKeys.put(keys);
+		index.mainSize = keys.length;
+		return index;
+	}
+
+	/**
+	 * This method packs a rating and an ordinal into the key of an index entry. The rating is
+	 * rounded to a float, so that ratings which only differ beyond the precision of a float
+	 * are ordered by their ordinals instead.
+	 *
+	 * @param rating - the rating of the movie
+	 * @param ordinal - the ordinal of the movie
+	 * @return the key of the movie
+	 * @throws IllegalArgumentException if rating is NaN or ordinal is negative
+	 */
+	public static long key(double rating, int ordinal) {
+		if (Double.isNaN(rating)) {
+			throw new IllegalArgumentException("A RatingIndex cannot store NaN ratings.");
+		}
+		if (ordinal < 0) {
+			throw new IllegalArgumentException("A RatingIndex cannot store negative ordinals.");
+		}
+		return ((long) sortableBits(rating) << 32) | ordinal;
+	}
+
+	/**
+	 * This method returns the rating packed into a key
+	 *
+	 * @param key - the key of an index entry
+	 * @return the rating of the entry, at the precision of a float
+	 */
+	public static double rating(long key) {
+		int bits = (int) (key >> 32);
+		return Float.intBitsToFloat(bits ^ ((bits >> 31) & 0x7fffffff));
+	}
+
+	/**
+	 * This method returns the ordinal packed into a key
+	 *
+	 * @param key - the key of an index entry
+	 * @return the ordinal of the entry
+	 */
+	public static int ordinal(long key) {
+		return (int) key;
+	}
+
+	/**
+	 * Helper method that turns a rating into an int which sorts like the rating. The bits of
+	 * positive floats already sort like their values, while those of negative floats sort in
+	 * reverse and are therefore flipped (except for the sign bit).
+	 */
+	private static int sortableBits(double rating) {
+		// adding 0 turns -0.0 into 0.0, so that both get the same bits
+		int bits = Float.floatToIntBits((float) rating + 0.0f);
+		return bits ^ ((bits >> 31) & 0x7fffffff);
+	}
+
+	/**
+	 * This method inserts a movie into the index
+	 *
+	 * @param rating - the rating of the movie
+	 * @param ordinal - the ordinal of the movie
+	 * @return true if the movie was inserted
+	 * @throws IllegalArgumentException if rating is NaN, ordinal is negative, or the index
+	 *                                  already contains the movie
+	 */
+	public boolean insert(double rating, int ordinal) throws IllegalArgumentException {
+		return insert(key(rating, ordinal));
+	}
+
+	/**
+	 * This method inserts a key into the index
+	 *
+	 * @param key - the key to be inserted
+	 * @return true if the key was inserted
+	 * @throws IllegalArgumentException if the index already contains the key
+	 */
+	public boolean insert(long key) throws IllegalArgumentException {
+		if (search(mainKeys, 0, mainSize, key) >= 0) {
+			throw new IllegalArgumentException("This RatingIndex already contains that key.");
+		}
+		int position = Arrays.binarySearch(pendingKeys, 0, pendingSize, key);
+		if (position >= 0) {
+			throw new IllegalArgumentException("This RatingIndex already contains that key.");
+		}
+		position = -position - 1;
+		if (pendingSize == pendingKeys.length) {
+			// making room for a larger pending array if the index has grown enough
+			int capacity = Math.max(MIN_PENDING_CAPACITY, (int) Math.sqrt(size()));
+			if (capacity > pendingKeys.length) {
+				pendingKeys = Arrays.copyOf(pendingKeys, capacity);
+			} else {
+				mergePendingKeys();
+				position = 0;
+			}
+		}
+		System.arraycopy(pendingKeys, position, pendingKeys, position + 1, pendingSize - position);
+		pendingKeys[position] = key;
+		pendingSize++;
+		modCount++;
+		return true;
+	}
+
+	/**
+	 * Helper method that merges the pending keys into the main keys off the heap. The keys are
+	 * merged from the back, so that no key of the main array is overwritten before it has been
+	 * moved. If the main array is too small, the keys are merged into a new one of twice the
+	 * size instead.
+	 */
+	private void mergePendingKeys() {
+		int mergedSize = mainSize + pendingSize;
+		LongBuffer source = mainKeys;
+		if (mergedSize > mainKeys.capacity()) {
+			allocateMainKeys(Math.max(mergedSize, 2 * mainKeys.capacity()));
+		}
+		int main = mainSize - 1;
+		int pending = pendingSize - 1;
+		for (int merged = mergedSize - 1; pending >= 0; --merged) {
+			if (main >= 0 && source.get(main) > pendingKeys[pending]) {
+				mainKeys.put(merged, source.get(main--));
+			} else {
+				mainKeys.put(merged, pendingKeys[pending--]);
+			}
+		}
+		// the remaining main keys are in place already unless they were merged into a new array
+		if (source != mainKeys) {
+			for (; main >= 0; --main) {
+				mainKeys.put(main, source.get(main));
+			}
+		}
+		mainSize = mergedSize;
+		pendingSize = 0;
+	}
+
+	/**
+	 * Helper method that allocates a new off-heap array for the main keys
+	 */
+	private void allocateMainKeys(int capacity) {
+		mainKeys = ByteBuffer.allocateDirect(capacity * Long.BYTES)
+				.order(ByteOrder.nativeOrder()).asLongBuffer();
+	}
+
+	/**
+	 * Helper method that performs a binary search for a key within part of a LongBuffer
+	 *
+	 * @return the index of the key if it is found, otherwise (-(insertion point) - 1) like
+	 *         Arrays.binarySearch
+	 */
+	private static int search(LongBuffer keys, int from, int to, long key) {
+		int low = from;
+		int high = to - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			long middleKey = keys.get(middle);
+			if (middleKey < key) {
+				low = middle + 1;
+			} else if (middleKey > key) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+		return -(low + 1);
+	}
+
+	/**
+	 * This method checks whether the index contains a key
+	 *
+	 * @param key - the key to look for
+	 * @return true if the index contains the key, false otherwise
+	 */
+	public boolean contains(long key) {
+		return search(mainKeys, 0, mainSize, key) >= 0
+				|| Arrays.binarySearch(pendingKeys, 0, pendingSize, key) >= 0;
+	}
+
+	/**
+	 * This method checks whether the index contains a movie
+	 *
+	 * @param rating - the rating of the movie
+	 * @param ordinal - the ordinal of the movie
+	 * @return true if the index contains the movie, false otherwise
+	 */
+	public boolean contains(double rating, int ordinal) {
+		return contains(key(rating, ordinal));
+	}
+
+	/**
+	 * This method returns the number of keys in the index
+	 *
+	 * @return the number of keys in the index
+	 */
+	public int size() {
+		return mainSize + pendingSize;
+	}
+
+	/**
+	 * This method checks whether the index is empty
+	 *
+	 * @return true if the index does not contain any key, false otherwise
+	 */
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * This method returns an iterator over all keys of the index in ascending order. The index
+	 * must not be modified while the iterator is in use.
+	 *
+	 * @return an iterator over the keys of the index
+	 */
+	public PrimitiveIterator.OfLong iterator() {
+		return new KeyIterator(0, 0, Long.MAX_VALUE, true);
+	}
+
+	/**
+	 * This method returns an iterator over the keys of the index which are greater than or equal
+	 * to lo and smaller than hi, in ascending order. The index must not be modified while the
+	 * iterator is in use.
+	 *
+	 * @param lo - the smallest key to be returned
+	 * @param hi - the key right after the largest key to be returned
+	 * @return an iterator over the keys within the range
+	 */
+	public PrimitiveIterator.OfLong rangeIterator(long lo, long hi) {
+		return new KeyIterator(startOf(lo), startOfPending(lo), hi, false);
+	}
+
+	/**
+	 * This method returns an iterator over the ordinals of the movies whose rating lies between
+	 * the passed ratings (both included), ordered by rating and then by ordinal. The index must
+	 * not be modified while the iterator is in use.
+	 *
+	 * @param lowestRating - the lowest rating to be included
+	 * @param highestRating - the highest rating to be included
+	 * @return an iterator over the ordinals of the movies rated within the range
+	 * @throws IllegalArgumentException if one of the ratings is NaN
+	 */
+	public PrimitiveIterator.OfInt ordinalsRatedBetween(double lowestRating, double highestRating) {
+		long lo = key(lowestRating, 0);
+		// the largest key that has the highest rating
+		long last = key(highestRating, 0) | 0xffffffffL;
+		KeyIterator keys = new KeyIterator(startOf(lo), startOfPending(lo), last, true);
+		return new PrimitiveIterator.OfInt() {
+			@Override
+			public boolean hasNext() {
+				return keys.hasNext();
+			}
+
+			@Override
+			public int nextInt() {
+				return ordinal(keys.nextLong());
+			}
+		};
+	}
+
+	/**
+	 * Helper method that finds the position of the first main key greater than or equal to lo
+	 */
+	private int startOf(long lo) {
+		int position = search(mainKeys, 0, mainSize, lo);
+		return position >= 0 ? position : -position - 1;
+	}
+
+	/**
+	 * Helper method that finds the position of the first pending key greater than or equal to lo
+	 */
+	private int startOfPending(long lo) {
+		int position = Arrays.binarySearch(pendingKeys, 0, pendingSize, lo);
+		return position >= 0 ? position : -position - 1;
+	}
+
+	/**
+	 * Iterates over the main keys and the pending keys at the same time, returning the smaller
+	 * of the two next keys each time, until the upper bound is reached
+	 */
+	private class KeyIterator implements PrimitiveIterator.OfLong {
+		private int nextMain;
+		private int nextPending;
+		private final long bound;
+		private final boolean boundIncluded;
+		private final int expectedModCount = modCount;
+
+		private KeyIterator(int nextMain, int nextPending, long bound, boolean boundIncluded) {
+			this.nextMain = nextMain;
+			this.nextPending = nextPending;
+			this.bound = bound;
+			this.boundIncluded = boundIncluded;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (nextMain == mainSize && nextPending == pendingSize) {
+				return false;
+			}
+			long next = peek();
+			return boundIncluded ? next <= bound : next < bound;
+		}
+
+		@Override
+		public long nextLong() {
+			if (!hasNext()) {
+				throw new NoSuchElementException("There are no more keys in this range.");
+			}
+			long next = peek();
+			if (nextPending < pendingSize && pendingKeys[nextPending] == next) {
+				nextPending++;
+			} else {
+				nextMain++;
+			}
+			return next;
+		}
+
+		/**
+		 * Helper method that returns the smaller of the next main key and the next pending key
+		 */
+		private long peek() {
+			if (nextPending == pendingSize) {
+				return mainKeys.get(nextMain);
+			}
+			if (nextMain == mainSize) {
+				return pendingKeys[nextPending];
+			}
+			return Math.min(mainKeys.get(nextMain), pendingKeys[nextPending]);
+		}
+	}
+}
@@ -1,8 +1,17 @@
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Random;
-import java.util.Stack;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Red-Black Tree implementation with a Node inner class for representing the
@@ -25,6 +34,7 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
 		public Node<T> leftChild;
 		public Node<T> rightChild;
 		public boolean isBlack;
+		public int subtreeSize = 1; // number of nodes in the subtree rooted here
 
 		public Node(T data) {
 			this.data = data;
@@ -70,86 +80,321 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
 		}
 	}
 
+	/**
+	 * This class represents a node of a tree that keeps aggregates of its
+	 * subtrees. Trees without a metric or attribute use plain nodes, which are
+	 * spared the memory of these fields.
+	 */
+	protected static class AggregateNode<T> extends Node<T> {
+		public double metricSum; // sum of the metric over the subtree rooted here
+		public int attributeMin; // smallest attribute within the subtree rooted here
+		public int attributeMax; // largest attribute within the subtree rooted here
+
+		public AggregateNode(T data) {
+			super(data);
+		}
+	}
+
+	/**
+	 * Policies for handling equal values when building a tree from a list of
+	 * values at once.
+	 */
+	public enum DuplicatePolicy {
+		/** throw an IllegalArgumentException, just like insert does */
+		REJECT,
+		/** keep the value that appears first in the provided list */
+		KEEP_FIRST,
+		/** keep the value that appears last in the provided list */
+		KEEP_LAST
+	}
+
 	protected Node<T> root; // reference to root node of tree, null when empty
 	protected int size = 0; // the number of values in the tree
+	private boolean frozen = false; // true once the tree no longer accepts changes
+	private long version = 0; // the number of changes made to the tree
+	private final ToDoubleFunction<? super T> metric; // summed per subtree, may be null
+	private final ToIntFunction<? super T> attribute; // min and max per subtree, may be null
+
+	/**
+	 * Creates an empty tree.
+	 */
+	public RedBlackTree() {
+		this.metric = null;
+		this.attribute = null;
+	}
+
+	/**
+	 * Creates an empty tree whose nodes keep aggregates of their subtrees: the sum
+	 * of a metric, such as a movie's rating, and the smallest and largest value of
+	 * an attribute, such as a movie's year. The aggregates are kept up to date by
+	 * every insert, remove, update, and rotation at the cost of O(log n), and let
+	 * the aggregate queries answer for any range of values in O(log n) without
+	 * visiting the values within it.
+	 * 
+	 * @param metric    the metric summed per subtree, null for none
+	 * @param attribute the attribute whose minimum and maximum are kept per
+	 *                  subtree, null for none
+	 */
+	public RedBlackTree(ToDoubleFunction<? super T> metric, ToIntFunction<? super T> attribute) {
+		this.metric = metric;
+		this.attribute = attribute;
+	}
+
+	/**
+	 * Creates a tree holding all the values of the provided list. The list is
+	 * sorted once and the tree is then built bottom-up in linear time, which is
+	 * much cheaper than inserting every value on its own.
+	 * 
+	 * @param data            the values to be stored within the tree
+	 * @param duplicatePolicy decides which value is kept when the list contains
+	 *                        equal values
+	 * @throws NullPointerException     when the list contains a null reference
+	 * @throws IllegalArgumentException when the list contains equal values and
+	 *                                  the policy is REJECT
+	 */
+	public RedBlackTree(List<? extends T> data, DuplicatePolicy duplicatePolicy) {
+		this(data, duplicatePolicy, false);
+	}
+
+	/**
+	 * Creates a tree holding all the values of the provided list, which is built
+	 * bottom-up in linear time. When the caller states that the list is already
+	 * sorted, the sorting step is skipped and the order is only verified while
+	 * the duplicates are resolved.
+	 * 
+	 * @param data            the values to be stored within the tree
+	 * @param duplicatePolicy decides which value is kept when the list contains
+	 *                        equal values
+	 * @param isSorted        true if the list is already in ascending order
+	 * @throws NullPointerException     when the list contains a null reference
+	 * @throws IllegalArgumentException when the list contains equal values and
+	 *                                  the policy is REJECT, or when isSorted is
+	 *                                  true but the list is not in ascending order
+	 */
+	public RedBlackTree(List<? extends T> data, DuplicatePolicy duplicatePolicy,
+			boolean isSorted) {
+		this(data, duplicatePolicy, isSorted, null, null);
+	}
+
+	/**
+	 * Creates a tree holding all the values of the provided list, which is built
+	 * bottom-up in linear time, and whose nodes keep aggregates of their subtrees
+	 * like the ones of RedBlackTree(metric, attribute).
+	 * 
+	 * @param data            the values to be stored within the tree
+	 * @param duplicatePolicy decides which value is kept when the list contains
+	 *                        equal values
+	 * @param isSorted        true if the list is already in ascending order
+	 * @param metric          the metric summed per subtree, null for none
+	 * @param attribute       the attribute whose minimum and maximum are kept per
+	 *                        subtree, null for none
+	 * @throws NullPointerException     when the list contains a null reference
+	 * @throws IllegalArgumentException when the list contains equal values and
+	 *                                  the policy is REJECT, or when isSorted is
+	 *                                  true but the list is not in ascending order
+	 */
+	public RedBlackTree(List<? extends T> data, DuplicatePolicy duplicatePolicy,
+			boolean isSorted, ToDoubleFunction<? super T> metric,
+			ToIntFunction<? super T> attribute) {
+		this.metric = metric;
+		this.attribute = attribute;
+		List<T> sortedData = new ArrayList<>(data);
+		if (!isSorted)
+			sortedData.sort(null); // stable, so KEEP_FIRST keeps the earliest value
+		removeDuplicates(sortedData, duplicatePolicy);
+		size = sortedData.size();
+		if (size > 0) {
+			// every level above the deepest one is full, so coloring only the nodes
+			// on the deepest level red gives every path the same number of black nodes
+			int redDepth = 31 - Integer.numberOfLeadingZeros(size);
+			root = buildSubtree(sortedData, 0, size, 0, redDepth, null);
+			root.isBlack = true;
+		}
+	}
+
+	/**
+	 * Helper method that removes equal values from a sorted list in place,
+	 * according to the passed policy.
+	 * 
+	 * @param sortedData      the list to be cleaned up, in ascending order
+	 * @param duplicatePolicy decides which of the equal values is kept
+	 * @throws NullPointerException     when the list contains a null reference
+	 * @throws IllegalArgumentException when equal values are found and the policy
+	 *                                  is REJECT, or when the list is not sorted
+	 */
+	private static <T extends Comparable<T>> void removeDuplicates(List<T> sortedData,
+			DuplicatePolicy duplicatePolicy) {
+		int kept = 0;
+		for (int i = 0; i < sortedData.size(); i++) {
+			T value = sortedData.get(i);
+			if (value == null)
+				throw new NullPointerException("This RedBlackTree cannot store null references.");
+			if (kept > 0) {
+				int compare = sortedData.get(kept - 1).compareTo(value);
+				if (compare > 0)
+					throw new IllegalArgumentException("The provided values are not sorted.");
+				if (compare == 0) {
+					if (duplicatePolicy == DuplicatePolicy.REJECT)
+						throw new IllegalArgumentException("This RedBlackTree already contains that "
+								+ "value.");
+					if (duplicatePolicy == DuplicatePolicy.KEEP_LAST)
+						sortedData.set(kept - 1, value);
+					continue;
+				}
+			}
+			sortedData.set(kept++, value);
+		}
+		sortedData.subList(kept, sortedData.size()).clear();
+	}
 
 	/**
-	 * Performs a naive insertion into a binary search tree: adding the input data
-	 * value to a new node in a leaf position within the tree. After this insertion,
-	 * no attempt is made to restructure or balance the tree. This tree will not
-	 * hold null references, nor duplicate data values.
+	 * Recursive helper method that builds a balanced subtree out of the values at
+	 * positions from to to - 1 of a sorted list, using the middle value as the
+	 * root of the subtree.
 	 * 
-	 * @param data to be added into this binary search tree
-	 * @return true if the value was inserted, false if not
-	 * @throws NullPointerException     when the provided data argument is null
-	 * @throws IllegalArgumentException when the newNode and subtree contain equal
-	 *                                  data references
+	 * @param sortedData the sorted values without duplicates
+	 * @param from       the first position (inclusive) of the subtree's values
+	 * @param to         the last position (exclusive) of the subtree's values
+	 * @param depth      the depth of the subtree's root within the whole tree
+	 * @param redDepth   the depth at which nodes are colored red
+	 * @param parent     the parent of the subtree's root, null for the root
+	 * @return the root of the subtree, null if it is empty
+	 */
+	private Node<T> buildSubtree(List<T> sortedData, int from, int to, int depth, int redDepth,
+			Node<T> parent) {
+		if (from >= to)
+			return null;
+		int middle = (from + to) >>> 1;
+		Node<T> node = newNode(sortedData.get(middle));
+		node.parent = parent;
+		node.isBlack = depth != redDepth;
+		node.leftChild = buildSubtree(sortedData, from, middle, depth + 1, redDepth, node);
+		node.rightChild = buildSubtree(sortedData, middle + 1, to, depth + 1, redDepth, node);
+		updateSubtreeAggregates(node);
+		return node;
+	}
+
+	/**
+	 * Inserts the input data value into a new red node in a leaf position within
+	 * the tree and then restores the red-black tree properties. The leaf position
+	 * is found by an iterative descent from the root, and the node is only
+	 * allocated once it is known that the value is not a duplicate. This tree will
+	 * not hold null references, nor duplicate data values.
+	 * 
+	 * @param data to be added into this red-black tree
+	 * @return true if the value was inserted
+	 * @throws NullPointerException          when the provided data argument is null
+	 * @throws IllegalArgumentException      when the tree already contains a value
+	 *                                       equal to data
+	 * @throws UnsupportedOperationException when this tree is frozen
 	 */
 	@Override
 	public boolean insert(T data) throws NullPointerException, IllegalArgumentException {
 		// null references cannot be stored within this tree
 		if (data == null)
 			throw new NullPointerException("This RedBlackTree cannot store null references.");
+		checkNotFrozen();
 
-		Node<T> newNode = new Node<>(data);
+		// add first node to an empty tree
 		if (root == null) {
-			root = newNode;
-			size++;
+			root = newNode(data);
 			root.isBlack = true;
+			updateSubtreeAggregates(root);
+			size++;
+			version++;
 			return true;
-		} // add first node to an empty tree
-		else {
-			boolean returnValue = insertHelper(newNode, root); // recursively insert into subtree
-			if (returnValue) {
-				root.isBlack = true;
-				size++;
-			} else
+		}
+
+		// descend to the node whose empty child position the new value belongs in
+		Node<T> parent = root;
+		int compare;
+		while (true) {
+			compare = data.compareTo(parent.data);
+			// do not allow duplicate values to be stored within this tree
+			if (compare == 0)
 				throw new IllegalArgumentException("This RedBlackTree already contains that "
 						+ "value.");
-			return returnValue;
+			Node<T> next = compare < 0 ? parent.leftChild : parent.rightChild;
+			if (next == null)
+				break;
+			parent = next;
 		}
 
+		Node<T> newNode = newNode(data);
+		newNode.parent = parent;
+		if (compare < 0)
+			parent.leftChild = newNode;
+		else
+			parent.rightChild = newNode;
+		updateSubtreeAggregates(newNode);
+		updatePathAggregates(parent);
+		enforceRBTreePropertiesAfterInsert(newNode);
+		root.isBlack = true;
+		size++;
+		version++;
+		return true;
 	}
 
 	/**
-	 * Recursive helper method to find the subtree with a null reference in the
-	 * position that the newNode should be inserted, and then extend this tree by
-	 * the newNode in that position.
+	 * Helper method that recomputes the aggregates of every node on the path from
+	 * the passed node up to the root, after a node below it was linked, unlinked,
+	 * or given a new value.
 	 * 
-	 * @param newNode is the new node that is being added to this tree
-	 * @param subtree is the reference to a node within this tree which the newNode
-	 *                should be inserted as a descenedent beneath
-	 * @return true is the value was inserted in subtree, false if not
+	 * @param subtree is the lowest node whose subtree has changed, may be null
 	 */
-	private boolean insertHelper(Node<T> newNode, Node<T> subtree) {
-		int compare = newNode.data.compareTo(subtree.data);
-		// do not allow duplicate values to be stored within this tree
-		if (compare == 0)
-			return false;
-
-		// store newNode within left subtree of subtree
-		else if (compare < 0) {
-			if (subtree.leftChild == null) { // left subtree empty, add here
-				subtree.leftChild = newNode;
-				newNode.parent = subtree;
-				enforceRBTreePropertiesAfterInsert(newNode);
-				return true;
-				// otherwise continue recursive search for location to insert
-			} else
-				return insertHelper(newNode, subtree.leftChild);
+	private void updatePathAggregates(Node<T> subtree) {
+		while (subtree != null) {
+			updateSubtreeAggregates(subtree);
+			subtree = subtree.parent;
 		}
+	}
 
-		// store newNode within the right subtree of subtree
-		else {
-			if (subtree.rightChild == null) { // right subtree empty, add here
-				subtree.rightChild = newNode;
-				newNode.parent = subtree;
-				enforceRBTreePropertiesAfterInsert(newNode);
-				return true;
-				// otherwise continue recursive search for location to insert
-			} else
-				return insertHelper(newNode, subtree.rightChild);
+	/**
+	 * Helper method that recomputes the subtree size and the aggregates stored in
+	 * the passed node from the ones stored in its children.
+	 * 
+	 * @param node is the node whose subtree size and aggregates are recomputed
+	 */
+	private void updateSubtreeAggregates(Node<T> node) {
+		node.subtreeSize = 1 + subtreeSize(node.leftChild) + subtreeSize(node.rightChild);
+		if (metric == null && attribute == null)
+			return;
+		AggregateNode<T> aggregateNode = (AggregateNode<T>) node;
+		AggregateNode<T> left = (AggregateNode<T>) node.leftChild;
+		AggregateNode<T> right = (AggregateNode<T>) node.rightChild;
+		if (metric != null) {
+			aggregateNode.metricSum = metric.applyAsDouble(node.data)
+					+ (left == null ? 0 : left.metricSum) + (right == null ? 0 : right.metricSum);
 		}
+		if (attribute != null) {
+			int value = attribute.applyAsInt(node.data);
+			// the attribute does not follow the order of the tree, so both children count
+			aggregateNode.attributeMin = Math.min(value, Math.min(
+					left == null ? value : left.attributeMin,
+					right == null ? value : right.attributeMin));
+			aggregateNode.attributeMax = Math.max(value, Math.max(
+					left == null ? value : left.attributeMax,
+					right == null ? value : right.attributeMax));
+		}
+	}
+
+	/**
+	 * Helper method that creates the node for a new value, which only has fields
+	 * for the aggregates when the tree keeps any.
+	 * 
+	 * @param data the value of the node
+	 * @return a red node holding data
+	 */
+	private Node<T> newNode(T data) {
+		return metric == null && attribute == null ? new Node<>(data) : new AggregateNode<>(data);
+	}
+
+	/**
+	 * @param subtree is the subtree whose size is returned, may be null
+	 * @return the number of nodes within the subtree, 0 for an empty subtree
+	 */
+	private static <T> int subtreeSize(Node<T> subtree) {
+		return subtree == null ? 0 : subtree.subtreeSize;
 	}
 
 	/**
@@ -160,135 +405,35 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
 	 * @param newRedNode - newly added red node
 	 */
 	private void enforceRBTreePropertiesAfterInsert(Node<T> newRedNode) {
-		// checking if the passed node is red or its parent is black or the root of the
-		// tree
-		if ((newRedNode.isBlack) || (newRedNode.parent.isBlack) || 
-				(newRedNode.parent.equals(root))) {
-			return;
-		}
-
-		// if newRedNode is left child
-		if (newRedNode.isLeftChild()) {
+		// a violation exists as long as the red node's parent is red as well; a red
+		// parent is never the root, so the grandparent always exists
+		while (newRedNode.parent != null && !newRedNode.parent.isBlack) {
+			Node<T> parent = newRedNode.parent;
+			Node<T> grandparent = parent.parent;
+			Node<T> uncle = parent.isLeftChild() ? grandparent.rightChild : grandparent.leftChild;
 
-			// if newRedNode's parent is left child
-			if (newRedNode.parent.isLeftChild()) {
-
-				// checking if newRedNode's grandparent's right child is null and the
-				// color of newRedNode's grandparent's right child
-				if ((newRedNode.parent.parent.rightChild != null) && 
-						!(newRedNode.parent.parent.rightChild.isBlack)) {
-					newRedNode.parent.isBlack = true;
-					newRedNode.parent.parent.isBlack = false;
-					newRedNode.parent.parent.rightChild.isBlack = true;
-
-					// checking if newRedNode's grandparent is the root of the tree
-					if (!(newRedNode.parent.parent.equals(root))) {
-						// call back to enforceRBTreePropertiesAfterInsert to check for
-						// violations
-						enforceRBTreePropertiesAfterInsert(newRedNode.parent.parent);
-					}
-
-				} else {
-					newRedNode.parent.parent.isBlack = false;
-					newRedNode.parent.isBlack = true;
-
-					// calling the rotate method to rotate about the newRedNode's parent and
-					// grandparent
-					rotate(newRedNode.parent, newRedNode.parent.parent);
-				}
+			// a red uncle: recolor and continue checking from the grandparent, which
+			// has just become red (the root is turned black again by insert)
+			if (uncle != null && !uncle.isBlack) {
+				parent.isBlack = true;
+				uncle.isBlack = true;
+				grandparent.isBlack = false;
+				newRedNode = grandparent;
+				continue;
 			}
 
-			// if newRedNode's parent is right child
-			else if (!(newRedNode.parent.isLeftChild())) {
-
-				// checking if newRedNode's grandparent's left child is null and the
-				// color of newRedNode's grandparent's left child
-				if ((newRedNode.parent.parent.leftChild != null) && 
-						!(newRedNode.parent.parent.leftChild.isBlack)) {
-					newRedNode.parent.isBlack = true;
-					newRedNode.parent.parent.isBlack = false;
-					newRedNode.parent.parent.leftChild.isBlack = true;
-
-					// checking if newRedNode's grandparent is the root of the tree
-					if (!(newRedNode.parent.parent.equals(root))) {
-						// call back to enforceRBTreePropertiesAfterInsert to check for
-						// violations
-						enforceRBTreePropertiesAfterInsert(newRedNode.parent.parent);
-					}
-
-				} else {
-					// calling the rotate method to rotate about newRedNode and newRedNode's parent
-					rotate(newRedNode, newRedNode.parent);
-					newRedNode.parent.isBlack = false;
-					newRedNode.isBlack = true;
-
-					// calling the rotate method to rotate about newRedNode and newRedNode's parent
-					rotate(newRedNode, newRedNode.parent);
-				}
-			}
-
-		}
-
-		// if newRedNode is right child
-		else if (!(newRedNode.isLeftChild())) {
-
-			// if newRedNode's parent is left child
-			if (newRedNode.parent.isLeftChild()) {
-
-				// checking if newRedNode's grandparent's right child is null and the
-				// color of newRedNode's grandparent's right child
-				if ((newRedNode.parent.parent.rightChild != null) 
-						&& !(newRedNode.parent.parent.rightChild.isBlack)) {
-					newRedNode.parent.isBlack = true;
-					newRedNode.parent.parent.isBlack = false;
-					newRedNode.parent.parent.rightChild.isBlack = true;
-
-					// checking if newRedNode's grandparent is the root of the tree
-					if (!(newRedNode.parent.parent.equals(root))) {
-						// call back to enforceRBTreePropertiesAfterInsert to check for
-						// violations
-						enforceRBTreePropertiesAfterInsert(newRedNode.parent.parent);
-					}
-
-				} else {
-					// calling the rotate method to rotate about newRedNode and newRedNode's parent
-					rotate(newRedNode, newRedNode.parent);
-					newRedNode.parent.isBlack = false;
-					newRedNode.isBlack = true;
-
-					// calling the rotate method to rotate about newRedNode and newRedNode's parent
-					rotate(newRedNode, newRedNode.parent);
-				}
-			}
-
-			// if newRedNode's parent is right child
-			else if (!(newRedNode.parent.isLeftChild())) {
-
-				// checking if newRedNode's grandparent's left child is null and the
-				// color of newRedNode's grandparent's left child
-				if ((newRedNode.parent.parent.leftChild != null) 
-						&& !(newRedNode.parent.parent.leftChild.isBlack)) {
-					newRedNode.parent.isBlack = true;
-					newRedNode.parent.parent.isBlack = false;
-					newRedNode.parent.parent.leftChild.isBlack = true;
-
-					// checking if newRedNode's grandparent is the root of the tree
-					if (!(newRedNode.parent.parent.equals(root))) {
-						// call back to enforceRBTreePropertiesAfterInsert to check for
-						// violations
-						enforceRBTreePropertiesAfterInsert(newRedNode.parent.parent);
-					}
-
-				} else {
-					newRedNode.parent.parent.isBlack = false;
-					newRedNode.parent.isBlack = true;
-
-					// calling the rotate method to rotate about the newRedNode's parent and
-					// grandparent
-					rotate(newRedNode.parent, newRedNode.parent.parent);
-				}
+			// a black uncle: when newRedNode and its parent are on different sides, first
+			// rotate newRedNode above its parent so that both are on the same side
+			if (newRedNode.isLeftChild() != parent.isLeftChild()) {
+				rotate(newRedNode, parent);
+				parent = newRedNode;
 			}
-
+			// then rotate the parent above the grandparent and swap their colors, which
+			// resolves the violation without changing any black height
+			parent.isBlack = true;
+			grandparent.isBlack = false;
+			rotate(parent, grandparent);
+			return;
 		}
 	}
 
@@ -354,6 +499,10 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
 			// node is set as the child to complete the rotation
 			child.rightChild = parent;
 			parent.parent = child;
+
+			// the parent node now sits beneath the child, so its aggregates are recomputed first
+			updateSubtreeAggregates(parent);
+			updateSubtreeAggregates(child);
 		}
 		// checking the placement of the child respective to the parent to accordingly
 		// rotate
@@ -399,6 +548,10 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
 			// node is set as the child to complete the rotation
 			child.leftChild = parent;
 			parent.parent = child;
+
+			// the parent node now sits beneath the child, so its aggregates are recomputed first
+			updateSubtreeAggregates(parent);
+			updateSubtreeAggregates(child);
 		}
 
 		// if the provided parent and child nodes do not have a child-parent
@@ -410,6 +563,254 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
 
 	}
 
+	/**
+	 * Removes the value *data* from this tree. The node holding the value is
+	 * unlinked and the red-black tree properties are then restored through
+	 * recoloring and rotations, so the removal costs O(log n).
+	 * 
+	 * @param data the value to be removed
+	 * @return true if the value was removed, false if the tree did not contain it
+	 * @throws NullPointerException          when the provided data argument is null
+	 * @throws UnsupportedOperationException when this tree is frozen
+	 */
+	public boolean remove(T data) throws NullPointerException {
+		// null references will not be stored within this tree
+		if (data == null)
+			throw new NullPointerException("This RedBlackTree cannot store null references.");
+		checkNotFrozen();
+		Node<T> node = findNode(data);
+		if (node == null)
+			return false;
+		removeNode(node);
+		return true;
+	}
+
+	/**
+	 * Replaces the value *oldData* with *newData*. As the position of a value
+	 * within the tree depends on how it compares to the other values (a movie's
+	 * position depends on its rating), the old value is removed and the new one is
+	 * inserted at its own position, unless both values compare as equal in which
+	 * case the node is simply given the new value.
+	 * 
+	 * @param oldData the value currently stored within the tree
+	 * @param newData the value to replace it with
+	 * @return true if the value was replaced, false if the tree did not contain
+	 *         oldData
+	 * @throws NullPointerException          when either of the provided values is
+	 *                                       null
+	 * @throws IllegalArgumentException      when the tree already contains a
+	 *                                       different value equal to newData, in
+	 *                                       which case the tree is left unchanged
+	 * @throws UnsupportedOperationException when this tree is frozen
+	 */
+	public boolean update(T oldData, T newData)
+			throws NullPointerException, IllegalArgumentException {
+		if (oldData == null || newData == null)
+			throw new NullPointerException("This RedBlackTree cannot store null references.");
+		checkNotFrozen();
+		Node<T> node = findNode(oldData);
+		if (node == null)
+			return false;
+		if (oldData.compareTo(newData) == 0) {
+			// same position within the tree, nothing needs to move
+			node.data = newData;
+			updatePathAggregates(node);
+			version++;
+			return true;
+		}
+		if (findNode(newData) != null)
+			throw new IllegalArgumentException("This RedBlackTree already contains that value.");
+		removeNode(node);
+		insert(newData);
+		return true;
+	}
+
+	/**
+	 * Helper method that descends the tree to find the node holding *data*.
+	 * 
+	 * @param data the value to look for
+	 * @return the node holding data, or null if the tree does not contain it
+	 */
+	private Node<T> findNode(T data) {
+		Node<T> current = root;
+		while (current != null) {
+			int compare = data.compareTo(current.data);
+			if (compare < 0)
+				current = current.leftChild;
+			else if (compare > 0)
+				current = current.rightChild;
+			else
+				return current;
+		}
+		return null;
+	}
+
+	/**
+	 * Helper method that unlinks the passed node from the tree and restores the
+	 * red-black tree properties afterwards.
+	 * 
+	 * @param node the node to be removed
+	 */
+	private void removeNode(Node<T> node) {
+		// a node with two children takes over the value of its in-order successor,
+		// which has at most one child, and that successor is removed instead
+		if (node.leftChild != null && node.rightChild != null) {
+			Node<T> successor = leftmostNode(node.rightChild);
+			node.data = successor.data;
+			node = successor;
+		}
+
+		// the only child (if any) replaces the node in its parent
+		Node<T> child = node.leftChild != null ? node.leftChild : node.rightChild;
+		Node<T> parent = node.parent;
+		if (child != null)
+			child.parent = parent;
+		if (parent == null)
+			root = child;
+		else if (parent.leftChild == node)
+			parent.leftChild = child;
+		else
+			parent.rightChild = child;
+		size--;
+		version++;
+		// the path from the parent up covers the node that took over the successor's value
+		updatePathAggregates(parent);
+
+		// removing a red node never violates a property; removing a black node
+		// leaves its path one black node short
+		if (node.isBlack) {
+			if (child != null && !child.isBlack)
+				child.isBlack = true;
+			else
+				enforceRBTreePropertiesAfterRemove(child, parent);
+		}
+	}
+
+	/**
+	 * The job of this method is to resolve the black height violation that is
+	 * introduced by removing a black node from a red-black tree. The position that
+	 * is one black node short ("double black") is moved up the tree or fixed
+	 * through recoloring and rotations involving its sibling.
+	 * 
+	 * @param doubleBlack the node that is one black node short, may be null when
+	 *                    this position is an empty leaf
+	 * @param parent      the parent of the double black position
+	 */
+	private void enforceRBTreePropertiesAfterRemove(Node<T> doubleBlack, Node<T> parent) {
+		while (doubleBlack != root && isBlack(doubleBlack)) {
+			// if the double black position is a left child
+			if (doubleBlack == parent.leftChild) {
+				Node<T> sibling = parent.rightChild;
+				// a red sibling is rotated above the parent so that the new sibling is black
+				if (!sibling.isBlack) {
+					sibling.isBlack = true;
+					parent.isBlack = false;
+					rotate(sibling, parent);
+					sibling = parent.rightChild;
+				}
+				if (isBlack(sibling.leftChild) && isBlack(sibling.rightChild)) {
+					// recoloring the sibling red moves the missing black node up to the parent
+					sibling.isBlack = false;
+					doubleBlack = parent;
+					parent = parent.parent;
+				} else {
+					// the sibling's red child is moved to the outside before the final rotation
+					if (isBlack(sibling.rightChild)) {
+						sibling.leftChild.isBlack = true;
+						sibling.isBlack = false;
+						rotate(sibling.leftChild, sibling);
+						sibling = parent.rightChild;
+					}
+					sibling.isBlack = parent.isBlack;
+					parent.isBlack = true;
+					sibling.rightChild.isBlack = true;
+					rotate(sibling, parent);
+					doubleBlack = root;
+				}
+			}
+			// if the double black position is a right child
+			else {
+				Node<T> sibling = parent.leftChild;
+				// a red sibling is rotated above the parent so that the new sibling is black
+				if (!sibling.isBlack) {
+					sibling.isBlack = true;
+					parent.isBlack = false;
+					rotate(sibling, parent);
+					sibling = parent.leftChild;
+				}
+				if (isBlack(sibling.leftChild) && isBlack(sibling.rightChild)) {
+					// recoloring the sibling red moves the missing black node up to the parent
+					sibling.isBlack = false;
+					doubleBlack = parent;
+					parent = parent.parent;
+				} else {
+					// the sibling's red child is moved to the outside before the final rotation
+					if (isBlack(sibling.leftChild)) {
+						sibling.rightChild.isBlack = true;
+						sibling.isBlack = false;
+						rotate(sibling.rightChild, sibling);
+						sibling = parent.leftChild;
+					}
+					sibling.isBlack = parent.isBlack;
+					parent.isBlack = true;
+					sibling.leftChild.isBlack = true;
+					rotate(sibling, parent);
+					doubleBlack = root;
+				}
+			}
+		}
+		if (doubleBlack != null)
+			doubleBlack.isBlack = true;
+	}
+
+	/**
+	 * @param node the node whose color is checked, may be null
+	 * @return true if the node is black, empty leaves (null) count as black
+	 */
+	private static <T> boolean isBlack(Node<T> node) {
+		return node == null || node.isBlack;
+	}
+
+	/**
+	 * Makes this tree read-only: every later call to insert, remove, or update
+	 * throws an UnsupportedOperationException. A frozen tree is never changed
+	 * again, so once it has been safely published it can be read by any number of
+	 * threads at the same time without locking.
+	 */
+	public void freeze() {
+		frozen = true;
+	}
+
+	/**
+	 * Checks whether this tree has been made read-only.
+	 * 
+	 * @return true if freeze has been called on this tree, false otherwise
+	 */
+	public boolean isFrozen() {
+		return frozen;
+	}
+
+	/**
+	 * Returns the number of changes made to this tree so far. Every successful
+	 * insert, remove, and update increases it, so a result computed from the tree
+	 * is still valid as long as the version has not changed since.
+	 * 
+	 * @return the version of this tree
+	 */
+	public long version() {
+		return version;
+	}
+
+	/**
+	 * Helper method that rejects a change to a frozen tree.
+	 * 
+	 * @throws UnsupportedOperationException when this tree is frozen
+	 */
+	private void checkNotFrozen() {
+		if (frozen)
+			throw new UnsupportedOperationException("This RedBlackTree is frozen.");
+	}
+
 	/**
 	 * Get the size of the tree (its number of nodes).
 	 * 
@@ -441,100 +842,697 @@ public class RedBlackTree<T extends Comparable<T>> implements SortedCollectionIn
 		// null references will not be stored within this tree
 		if (data == null)
 			throw new NullPointerException("This RedBlackTree cannot store null references.");
-		return this.containsHelper(data, root);
+		return findNode(data) != null;
 	}
 
 	/**
-	 * Recursive helper method that recurses through the tree and looks for the
-	 * value *data*.
+	 * Returns an iterator over the values in in-order (sorted) order.
 	 * 
-	 * @param data    the data value to look for
-	 * @param subtree the subtree to search through
-	 * @return true of the value is in the subtree, false if not
+	 * @return iterator object that traverses the tree in in-order sequence
 	 */
-	private boolean containsHelper(T data, Node<T> subtree) {
-		if (subtree == null) {
-			// we are at a null child, value is not in tree
-			return false;
-		} else {
-			int compare = data.compareTo(subtree.data);
-			if (compare < 0) {
-				// go left in the tree
-				return containsHelper(data, subtree.leftChild);
-			} else if (compare > 0) {
-				// go right in the tree
-				return containsHelper(data, subtree.rightChild);
-			} else {
-				// we found it :)
-				return true;
-			}
-		}
+	@Override
+	public Iterator<T> iterator() {
+		// the traversal starts at the smallest value and follows the parent
+		// references from one node to its successor, so no stack is needed
+		return new RangeIterator(leftmostNode(root), null);
 	}
 
 	/**
-	 * Returns an iterator over the values in in-order (sorted) order.
+	 * Returns a spliterator over the values in in-order (sorted) order. The
+	 * spliterator covers a range of ranks and is split in the middle of that range,
+	 * which select() finds in O(log n) through the subtree sizes, so both halves
+	 * always know their exact size. It is SIZED, SUBSIZED, ORDERED, SORTED,
+	 * DISTINCT, and NONNULL. The tree must not be changed while the spliterator
+	 * is in use, which a frozen tree, such as a snapshot of a ConcurrentCatalog,
+	 * guarantees.
 	 * 
-	 * @return iterator object that traverses the tree in in-order sequence
+	 * @return spliterator object that traverses the tree in in-order sequence
 	 */
 	@Override
-	public Iterator<T> iterator() {
-		// use an anonymous class here that implements the Iterator interface
-		// we create a new on-off object of this class everytime the iterator
-		// method is called
+	public Spliterator<T> spliterator() {
+		return new TreeSpliterator(0, size);
+	}
+
+	/**
+	 * Returns a sequential stream over the values in in-order (sorted) order.
+	 * 
+	 * @return stream of the values of this tree
+	 */
+	public Stream<T> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+
+	/**
+	 * Returns a parallel stream over the values in in-order (sorted) order, which
+	 * splits the tree into ranges of ranks that are processed on the common
+	 * ForkJoinPool. Aggregates over the whole catalog, such as the average rating
+	 * per genre, then use every core:
+	 * tree.parallelStream().collect(Collectors.groupingBy(MovieData::getGenre,
+	 * Collectors.averagingDouble(MovieData::getRating))).
+	 * 
+	 * @return parallel stream of the values of this tree
+	 */
+	public Stream<T> parallelStream() {
+		return StreamSupport.stream(spliterator(), true);
+	}
+
+	/**
+	 * Returns an iterator over the values in descending order. The traversal
+	 * starts at the largest value and follows the parent references from one node
+	 * to its predecessor, so the k largest values cost O(log n + k).
+	 * 
+	 * @return iterator object that traverses the tree in reverse in-order sequence
+	 */
+	public Iterator<T> descendingIterator() {
+		return descendingIterator(rightmostNode(root));
+	}
+
+	/**
+	 * Returns an iterator over the values of this tree that are smaller than hi,
+	 * in descending order. The traversal starts at the largest value below hi,
+	 * which is found by a single descent, so the k largest values below hi cost
+	 * O(log n + k).
+	 * 
+	 * @param hi the exclusive upper bound of the values
+	 * @return iterator object that traverses the values smaller than hi in
+	 *         reverse in-order sequence
+	 * @throws NullPointerException when the provided bound is null
+	 */
+	public Iterator<T> descendingIterator(T hi) {
+		if (hi == null)
+			throw new NullPointerException("The bounds of a range cannot be null references.");
+		Node<T> ceiling = ceilingNode(hi);
+		return descendingIterator(ceiling == null ? rightmostNode(root) : predecessorNode(ceiling));
+	}
+
+	/**
+	 * Helper method that returns an iterator following the predecessors of the
+	 * passed node.
+	 * 
+	 * @param first the node holding the first value to be returned, may be null
+	 * @return iterator object that traverses the tree in reverse in-order sequence
+	 */
+	private Iterator<T> descendingIterator(Node<T> first) {
 		return new Iterator<T>() {
-			// a stack and current reference store the progress of the traversal
-			// so that we can return one value at a time with the Iterator
-			Stack<Node<T>> stack = null;
-			Node<T> current = root;
-
-			/**
-			 * The next method is called for each value in the traversal sequence. It
-			 * returns one value at a time.
-			 * 
-			 * @return next value in the sequence of the traversal
-			 * @throws NoSuchElementException if there is no more elements in the sequence
-			 */
+			private Node<T> nextNode = first; // null once exhausted
+
+			@Override
+			public boolean hasNext() {
+				return nextNode != null;
+			}
+
+			@Override
 			public T next() {
-				// if stack == null, we need to initialize the stack and current element
-				if (stack == null) {
-					stack = new Stack<Node<T>>();
-					current = root;
-				}
-				// go left as far as possible in the sub tree we are in until we hit a null
-				// leaf (current is null), pushing all the nodes we fund on our way onto the
-				// stack to process later
-				while (current != null) {
-					stack.push(current);
-					current = current.leftChild;
-				}
-				// as long as the stack is not empty, we haven't finished the traversal yet;
-				// take the next element from the stack and return it, then start to step down
-				// its right subtree (set its right sub tree to current)
-				if (!stack.isEmpty()) {
-					Node<T> processedNode = stack.pop();
-					current = processedNode.rightChild;
-					return processedNode.data;
-				} else {
-					// if the stack is empty, we are done with our traversal
+				if (nextNode == null)
 					throw new NoSuchElementException("There are no more elements in the tree");
-				}
+				T data = nextNode.data;
+				nextNode = predecessorNode(nextNode);
+				return data;
+			}
+		};
+	}
 
+	/**
+	 * Returns the k largest values of this tree that are accepted by the passed
+	 * filter, largest first. For a tree of MovieData these are the k best rated
+	 * matching movies. The values are visited in descending order and the walk
+	 * stops as soon as k values have been accepted, so no heap is needed: the
+	 * query costs O(log n + k / s), where s is the fraction of values accepted by
+	 * the filter, instead of a walk over the whole tree.
+	 * 
+	 * @param k      the maximum number of values to be returned
+	 * @param filter decides which values may be returned, null to accept all
+	 * @return a list holding up to k accepted values in descending order
+	 * @throws IllegalArgumentException when k is negative
+	 */
+	public List<T> topK(int k, Predicate<? super T> filter) {
+		if (k < 0)
+			throw new IllegalArgumentException("The number of values cannot be negative.");
+		List<T> top = new ArrayList<>(Math.min(k, size));
+		Node<T> current = k == 0 ? null : rightmostNode(root);
+		while (current != null) {
+			if (filter == null || filter.test(current.data)) {
+				top.add(current.data);
+				if (top.size() == k)
+					break;
 			}
+			current = predecessorNode(current);
+		}
+		return top;
+	}
 
-			/**
-			 * Returns a boolean that indicates if the iterator has more elements (true), or
-			 * if the traversal has finished (false)
-			 * 
-			 * @return boolean indicating whether there are more elements / steps for the
-			 *         traversal
-			 */
-			public boolean hasNext() {
-				// return true if we either still have a current reference, or the stack
-				// is not empty yet
-				return !(current == null && (stack == null || stack.isEmpty()));
+	/**
+	 * Returns an iterator over the values of this tree that are greater than or
+	 * equal to lo and smaller than hi, in in-order (sorted) order. The iterator
+	 * seeks directly to the first value within the range and stops as soon as it
+	 * reaches hi, so a range holding k values costs O(log n + k) and values are
+	 * only visited as they are requested through next().
+	 *
+	 * @param lo the inclusive lower bound of the range
+	 * @param hi the exclusive upper bound of the range
+	 * @return iterator object that traverses the values within the range in
+	 *         in-order sequence
+	 * @throws NullPointerException when either of the provided bounds is null
+	 */
+	public Iterator<T> rangeIterator(T lo, T hi) {
+		if (lo == null || hi == null)
+			throw new NullPointerException("The bounds of a range cannot be null references.");
+		return new RangeIterator(ceilingNode(lo), hi);
+	}
+
+	/**
+	 * Returns an iterator over the values of this tree that are smaller than hi,
+	 * in in-order (sorted) order.
+	 *
+	 * @param hi the exclusive upper bound of the range
+	 * @return iterator object that traverses the values smaller than hi in
+	 *         in-order sequence
+	 * @throws NullPointerException when the provided bound is null
+	 */
+	public Iterator<T> headIterator(T hi) {
+		if (hi == null)
+			throw new NullPointerException("The bounds of a range cannot be null references.");
+		return new RangeIterator(leftmostNode(root), hi);
+	}
+
+	/**
+	 * Returns an iterator over the values of this tree that are greater than or
+	 * equal to lo, in in-order (sorted) order.
+	 *
+	 * @param lo the inclusive lower bound of the range
+	 * @return iterator object that traverses the values greater than or equal to
+	 *         lo in in-order sequence
+	 * @throws NullPointerException when the provided bound is null
+	 */
+	public Iterator<T> tailIterator(T lo) {
+		if (lo == null)
+			throw new NullPointerException("The bounds of a range cannot be null references.");
+		return new RangeIterator(ceilingNode(lo), null);
+	}
+
+	/**
+	 * Counts the values of this tree that are greater than or equal to lo and
+	 * smaller than hi.
+	 *
+	 * @param lo the inclusive lower bound of the range
+	 * @param hi the exclusive upper bound of the range
+	 * @return the number of values within the range
+	 * @throws NullPointerException when either of the provided bounds is null
+	 */
+	public int countInRange(T lo, T hi) {
+		if (lo == null || hi == null)
+			throw new NullPointerException("The bounds of a range cannot be null references.");
+		return Math.max(0, rank(hi) - rank(lo));
+	}
+
+	/**
+	 * Returns the sum of the metric over all values of this tree in O(1).
+	 * 
+	 * @return the sum of the metric, 0 for an empty tree
+	 * @throws IllegalStateException when the tree was created without a metric
+	 */
+	public double metricSum() {
+		checkAggregates(metric);
+		return root == null ? 0 : ((AggregateNode<T>) root).metricSum;
+	}
+
+	/**
+	 * Returns the sum of the metric over the values of this tree that are greater
+	 * than or equal to lo and smaller than hi. The range is covered by O(log n)
+	 * whole subtrees and single nodes, so this costs O(log n).
+	 * 
+	 * @param lo the inclusive lower bound of the range
+	 * @param hi the exclusive upper bound of the range
+	 * @return the sum of the metric within the range, 0 for an empty range
+	 * @throws NullPointerException  when either of the provided bounds is null
+	 * @throws IllegalStateException when the tree was created without a metric
+	 */
+	public double metricSum(T lo, T hi) {
+		return aggregate(lo, hi, metric).sum;
+	}
+
+	/**
+	 * Returns the average of the metric over the values of this tree that are
+	 * greater than or equal to lo and smaller than hi, in O(log n).
+	 * 
+	 * @param lo the inclusive lower bound of the range
+	 * @param hi the exclusive upper bound of the range
+	 * @return the average of the metric within the range, NaN for an empty range
+	 * @throws NullPointerException  when either of the provided bounds is null
+	 * @throws IllegalStateException when the tree was created without a metric
+	 */
+	public double metricAverage(T lo, T hi) {
+		RangeAggregate range = aggregate(lo, hi, metric);
+		return range.count == 0 ? Double.NaN : range.sum / range.count;
+	}
+
+	/**
+	 * Returns the smallest attribute of the values of this tree that are greater
+	 * than or equal to lo and smaller than hi, in O(log n).
+	 * 
+	 * @param lo the inclusive lower bound of the range
+	 * @param hi the exclusive upper bound of the range
+	 * @return the smallest attribute within the range
+	 * @throws NullPointerException   when either of the provided bounds is null
+	 * @throws IllegalStateException  when the tree was created without an
+	 *                                attribute
+	 * @throws NoSuchElementException when the range is empty
+	 */
+	public int attributeMin(T lo, T hi) {
+		RangeAggregate range = aggregate(lo, hi, attribute);
+		if (range.count == 0)
+			throw new NoSuchElementException("There are no elements in the range");
+		return range.min;
+	}
+
+	/**
+	 * Returns the largest attribute of the values of this tree that are greater
+	 * than or equal to lo and smaller than hi, in O(log n).
+	 * 
+	 * @param lo the inclusive lower bound of the range
+	 * @param hi the exclusive upper bound of the range
+	 * @return the largest attribute within the range
+	 * @throws NullPointerException   when either of the provided bounds is null
+	 * @throws IllegalStateException  when the tree was created without an
+	 *                                attribute
+	 * @throws NoSuchElementException when the range is empty
+	 */
+	public int attributeMax(T lo, T hi) {
+		RangeAggregate range = aggregate(lo, hi, attribute);
+		if (range.count == 0)
+			throw new NoSuchElementException("There are no elements in the range");
+		return range.max;
+	}
+
+	/**
+	 * The aggregates of a range of values, gathered from the subtrees and nodes
+	 * covering it.
+	 */
+	private static class RangeAggregate {
+		private int count = 0;
+		private double sum = 0;
+		private int min = Integer.MAX_VALUE;
+		private int max = Integer.MIN_VALUE;
+	}
+
+	/**
+	 * Helper method that rejects an aggregate query the tree keeps no aggregates
+	 * for.
+	 * 
+	 * @param function the metric or attribute the query needs
+	 * @throws IllegalStateException when function is null
+	 */
+	private static void checkAggregates(Object function) {
+		if (function == null)
+			throw new IllegalStateException("This RedBlackTree does not keep that aggregate.");
+	}
+
+	/**
+	 * Helper method that gathers the aggregates of the values greater than or
+	 * equal to lo and smaller than hi.
+	 * 
+	 * @param lo       the inclusive lower bound of the range
+	 * @param hi       the exclusive upper bound of the range
+	 * @param function the metric or attribute the query needs
+	 * @return the aggregates of the range
+	 */
+	private RangeAggregate aggregate(T lo, T hi, Object function) {
+		if (lo == null || hi == null)
+			throw new NullPointerException("The bounds of a range cannot be null references.");
+		checkAggregates(function);
+		RangeAggregate range = new RangeAggregate();
+		aggregate(root, lo, hi, range);
+		return range;
+	}
+
+	/**
+	 * Recursive helper method that adds the aggregates of the values of a subtree
+	 * that lie within the range. Once a node within the range is found, its left
+	 * subtree only has a lower bound and its right subtree only has an upper
+	 * bound, so every level adds at most two whole subtrees and descends into at
+	 * most two more.
+	 * 
+	 * @param subtree the subtree whose values are added, may be null
+	 * @param lo      the inclusive lower bound, null if every value of the subtree
+	 *                is large enough
+	 * @param hi      the exclusive upper bound, null if every value of the subtree
+	 *                is small enough
+	 * @param range   the aggregates gathered so far
+	 */
+	private void aggregate(Node<T> subtree, T lo, T hi, RangeAggregate range) {
+		while (subtree != null) {
+			if (lo == null && hi == null) {
+				addSubtree(subtree, range);
+				return;
 			}
+			if (lo != null && subtree.data.compareTo(lo) < 0) {
+				subtree = subtree.rightChild;
+			} else if (hi != null && subtree.data.compareTo(hi) >= 0) {
+				subtree = subtree.leftChild;
+			} else {
+				aggregate(subtree.leftChild, lo, null, range);
+				addNode(subtree.data, range);
+				// the right subtree is handled by the loop instead of a recursive call
+				subtree = subtree.rightChild;
+				lo = null;
+			}
+		}
+	}
 
-		};
+	/**
+	 * Helper method that adds the aggregates stored in a subtree's root.
+	 */
+	private void addSubtree(Node<T> subtree, RangeAggregate range) {
+		range.count += subtree.subtreeSize;
+		if (metric != null)
+			range.sum += ((AggregateNode<T>) subtree).metricSum;
+		if (attribute != null) {
+			range.min = Math.min(range.min, ((AggregateNode<T>) subtree).attributeMin);
+			range.max = Math.max(range.max, ((AggregateNode<T>) subtree).attributeMax);
+		}
+	}
+
+	/**
+	 * Helper method that adds the aggregates of a single value.
+	 */
+	private void addNode(T data, RangeAggregate range) {
+		range.count++;
+		if (metric != null)
+			range.sum += metric.applyAsDouble(data);
+		if (attribute != null) {
+			int value = attribute.applyAsInt(data);
+			range.min = Math.min(range.min, value);
+			range.max = Math.max(range.max, value);
+		}
+	}
+
+	/**
+	 * Creates a copy of this tree holding the same values and keeping the same
+	 * aggregates, which is not frozen even if this tree is. The copy is built
+	 * bottom-up from the values in order, so this costs O(n).
+	 * 
+	 * @return the copy of this tree
+	 */
+	public RedBlackTree<T> copy() {
+		List<T> values = new ArrayList<>(size);
+		for (T value : this)
+			values.add(value);
+		return new RedBlackTree<>(values, DuplicatePolicy.REJECT, true, metric, attribute);
+	}
+
+	/**
+	 * Returns the value at the passed position of the in-order (sorted) sequence
+	 * of this tree. The subtree sizes stored in the nodes are used to descend
+	 * directly to the value, so this costs O(log n).
+	 *
+	 * @param index the zero-based position of the value within the sorted order
+	 * @return the value at that position
+	 * @throws IndexOutOfBoundsException when index is negative or not smaller than
+	 *                                   size()
+	 */
+	public T select(int index) {
+		return selectNode(index).data;
+	}
+
+	/**
+	 * Returns the number of values in this tree that are smaller than *data*,
+	 * which is the position *data* has, or would have, in the sorted order.
+	 *
+	 * @param data the value whose rank is computed
+	 * @return the number of values smaller than data
+	 * @throws NullPointerException when the provided data argument is null
+	 */
+	public int rank(T data) {
+		if (data == null)
+			throw new NullPointerException("This RedBlackTree cannot store null references.");
+		int rank = 0;
+		Node<T> current = root;
+		while (current != null) {
+			int compare = data.compareTo(current.data);
+			if (compare < 0) {
+				current = current.leftChild;
+			} else if (compare > 0) {
+				// everything in the left subtree and current itself are smaller
+				rank += subtreeSize(current.leftChild) + 1;
+				current = current.rightChild;
+			} else {
+				return rank + subtreeSize(current.leftChild);
+			}
+		}
+		return rank;
+	}
+
+	/**
+	 * Returns one page of the in-order (sorted) sequence of this tree: the values
+	 * at positions offset to offset + limit - 1. The first value is found through
+	 * select and the rest by walking to successors, so a page costs
+	 * O(log n + limit) regardless of how deep into the sequence it lies.
+	 *
+	 * @param offset the zero-based position of the first value on the page
+	 * @param limit  the maximum number of values on the page
+	 * @return a list holding the values of the page, which is shorter than limit
+	 *         (or empty) when the page runs past the end of the tree
+	 * @throws IllegalArgumentException when offset or limit is negative
+	 */
+	public List<T> page(int offset, int limit) {
+		if (offset < 0 || limit < 0)
+			throw new IllegalArgumentException("The offset and limit of a page cannot be negative.");
+		int pageSize = (int) Math.min((long) limit, Math.max(0L, (long) size - offset));
+		List<T> page = new ArrayList<>(pageSize);
+		if (pageSize == 0)
+			return page;
+		Node<T> current = selectNode(offset);
+		while (page.size() < pageSize) {
+			page.add(current.data);
+			current = successorNode(current);
+		}
+		return page;
+	}
+
+	/**
+	 * Helper method that descends to the node at the passed in-order position
+	 * using the subtree sizes stored in the nodes.
+	 *
+	 * @param index the zero-based position of the node within the sorted order
+	 * @return the node at that position
+	 * @throws IndexOutOfBoundsException when index is out of range
+	 */
+	private Node<T> selectNode(int index) {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		Node<T> current = root;
+		while (true) {
+			int leftSize = subtreeSize(current.leftChild);
+			if (index < leftSize) {
+				current = current.leftChild;
+			} else if (index > leftSize) {
+				index -= leftSize + 1;
+				current = current.rightChild;
+			} else {
+				return current;
+			}
+		}
+	}
+
+	/**
+	 * Helper method that descends the tree once to find the node holding the
+	 * smallest value that is greater than or equal to *data*.
+	 *
+	 * @param data the value to look for
+	 * @return the node holding the smallest value >= data, or null if every value
+	 *         in the tree is smaller than data
+	 */
+	private Node<T> ceilingNode(T data) {
+		Node<T> ceiling = null;
+		Node<T> current = root;
+		while (current != null) {
+			int compare = data.compareTo(current.data);
+			if (compare < 0) {
+				// current is a candidate, but a smaller one may exist to its left
+				ceiling = current;
+				current = current.leftChild;
+			} else if (compare > 0) {
+				current = current.rightChild;
+			} else {
+				return current;
+			}
+		}
+		return ceiling;
+	}
+
+	/**
+	 * Helper method that returns the node holding the smallest value within the
+	 * passed subtree.
+	 *
+	 * @param subtree the subtree to search through
+	 * @return the leftmost node of the subtree, or null if the subtree is empty
+	 */
+	private static <T> Node<T> leftmostNode(Node<T> subtree) {
+		if (subtree == null)
+			return null;
+		while (subtree.leftChild != null)
+			subtree = subtree.leftChild;
+		return subtree;
+	}
+
+	/**
+	 * Helper method that returns the in-order successor of the passed node by
+	 * following the parent references, so that no stack is needed to continue a
+	 * traversal from an arbitrary node.
+	 *
+	 * @param node the node whose successor is looked for
+	 * @return the node holding the next larger value, or null if node holds the
+	 *         largest value of the tree
+	 */
+	private static <T> Node<T> successorNode(Node<T> node) {
+		if (node.rightChild != null)
+			return leftmostNode(node.rightChild);
+		// climb up until we leave a left subtree, the parent of that subtree is next
+		while (node.parent != null && node.parent.rightChild == node)
+			node = node.parent;
+		return node.parent;
+	}
+
+	/**
+	 * Helper method that returns the node holding the largest value within the
+	 * passed subtree.
+	 *
+	 * @param subtree the subtree to search through
+	 * @return the rightmost node of the subtree, or null if the subtree is empty
+	 */
+	private static <T> Node<T> rightmostNode(Node<T> subtree) {
+		if (subtree == null)
+			return null;
+		while (subtree.rightChild != null)
+			subtree = subtree.rightChild;
+		return subtree;
+	}
+
+	/**
+	 * Helper method that returns the in-order predecessor of the passed node by
+	 * following the parent references, mirroring successorNode().
+	 *
+	 * @param node the node whose predecessor is looked for
+	 * @return the node holding the next smaller value, or null if node holds the
+	 *         smallest value of the tree
+	 */
+	private static <T> Node<T> predecessorNode(Node<T> node) {
+		if (node.leftChild != null)
+			return rightmostNode(node.leftChild);
+		// climb up until we leave a right subtree, the parent of that subtree is next
+		while (node.parent != null && node.parent.leftChild == node)
+			node = node.parent;
+		return node.parent;
+	}
+
+	/**
+	 * Iterator over a contiguous range of the tree's values. It starts at a node
+	 * found by a single descent and moves on through successorNode() one step at a
+	 * time, so no value past the upper bound is ever visited.
+	 */
+	private class RangeIterator implements Iterator<T> {
+		private Node<T> nextNode; // null once the range is exhausted
+		private final T hi; // exclusive upper bound, null when unbounded
+
+		private RangeIterator(Node<T> first, T hi) {
+			this.hi = hi;
+			this.nextNode = withinBound(first);
+		}
+
+		/**
+		 * @param node the candidate node to be returned next
+		 * @return the passed node if it lies below the upper bound, otherwise null
+		 */
+		private Node<T> withinBound(Node<T> node) {
+			if (node != null && hi != null && node.data.compareTo(hi) >= 0)
+				return null;
+			return node;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return nextNode != null;
+		}
+
+		@Override
+		public T next() {
+			if (nextNode == null)
+				throw new NoSuchElementException("There are no more elements in the range");
+			T data = nextNode.data;
+			nextNode = withinBound(successorNode(nextNode));
+			return data;
+		}
+	}
+
+	/**
+	 * Spliterator over the values whose ranks lie within a range. The node of the
+	 * first rank is only looked up once the first value is requested, so splitting
+	 * a spliterator that is split again right away costs nothing but the split.
+	 */
+	private class TreeSpliterator implements Spliterator<T> {
+		private int from; // the rank of the next value
+		private final int to; // the exclusive upper bound of the ranks
+		private Node<T> nextNode; // the node holding rank from, null until looked up
+
+		private TreeSpliterator(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super T> action) {
+			if (from >= to)
+				return false;
+			if (nextNode == null)
+				nextNode = selectNode(from);
+			action.accept(nextNode.data);
+			from++;
+			nextNode = from < to ? successorNode(nextNode) : null;
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(Consumer<? super T> action) {
+			if (from >= to)
+				return;
+			Node<T> current = nextNode != null ? nextNode : selectNode(from);
+			int remaining = to - from;
+			from = to;
+			nextNode = null;
+			for (int i = 0; i < remaining; i++) {
+				action.accept(current.data);
+				current = successorNode(current);
+			}
+		}
+
+		@Override
+		public Spliterator<T> trySplit() {
+			// a single value cannot be split any further
+			if (to - from < 2)
+				return null;
+			int middle = (from + to) >>> 1;
+			TreeSpliterator prefix = new TreeSpliterator(from, middle);
+			prefix.nextNode = nextNode;
+			from = middle;
+			nextNode = null;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return to - from;
+		}
+
+		@Override
+		public int characteristics() {
+			return SIZED | SUBSIZED | ORDERED | SORTED | DISTINCT | NONNULL;
+		}
+
+		@Override
+		public Comparator<? super T> getComparator() {
+			// null stands for the natural ordering of the values
+			return null;
+		}
 	}
 
 	/**
@@ -0,0 +1,477 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+
+/**
+ * This class implements a sorted collection that is split into shards, each of which is a
+ * RedBlackTree guarded by its own read-write lock. The shards partition the values by range:
+ * the splitters passed to the constructor are the smallest values of every shard but the
+ * first, so for movies ordered by rating every shard holds a band of ratings. Threads inserting
+ * values into different shards do not wait for each other, and rotations within one shard never
+ * touch another.
+ *
+ * As every value of a shard is smaller than every value of the next shard, iterating over the
+ * collection visits the shards one after the other and needs no merging. Iterators are weakly
+ * consistent: they never throw a ConcurrentModificationException, and they read a shard in
+ * chunks, each of which reflects the shard at the time the chunk was read.
+ */
+public class ShardedSortedCollection<T extends Comparable<T>>
+		implements SortedCollectionInterface<T> {
+	private static final int CHUNK_SIZE = 256; // the number of values an iterator reads at once
+
+	private final List<T> splitters; // the smallest value of every shard but the first
+	private final List<RedBlackTree<T>> shards = new ArrayList<RedBlackTree<T>>();
+	private final List<ReadWriteLock> locks = new ArrayList<ReadWriteLock>();
+	private final int parallelism; // the number of threads filling the shards in insertAll
+
+	/**
+	 * Constructor method so as to create an empty ShardedSortedCollection with one shard more
+	 * than there are splitters, whose insertAll uses as many threads as there are processors
+	 *
+	 * @param splitters - the smallest value of every shard but the first, in strictly ascending
+	 *                    order
+	 * @throws NullPointerException if a splitter is null
+	 * @throws IllegalArgumentException if the splitters are not strictly sorted
+	 */
+	public ShardedSortedCollection(List<? extends T> splitters) {
+		this(splitters, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor method so as to create an empty ShardedSortedCollection with one shard more
+	 * than there are splitters, whose insertAll fills the shards with up to the passed number of
+	 * threads of its own
+	 *
+	 * @param splitters - the smallest value of every shard but the first, in strictly ascending
+	 *                    order
+	 * @param parallelism - the number of threads filling the shards in insertAll
+	 * @throws NullPointerException if a splitter is null
+	 * @throws IllegalArgumentException if the splitters are not strictly sorted or parallelism
+	 *                                  is smaller than 1
+	 */
+	public ShardedSortedCollection(List<? extends T> splitters, int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("The parallelism has to be at least 1");
+		}
+		this.parallelism = parallelism;
+		for (int i = 0; i < splitters.size(); ++i) {
+			if (splitters.get(i) == null) {
+				throw new NullPointerException("This ShardedSortedCollection cannot store null "
+						+ "references.");
+			}
+			if (i > 0 && splitters.get(i - 1).compareTo(splitters.get(i)) >= 0) {
+				throw new IllegalArgumentException("The provided splitters are not strictly "
+						+ "sorted.");
+			}
+		}
+		this.splitters = new ArrayList<T>(splitters);
+		for (int i = 0; i <= splitters.size(); ++i) {
+			shards.add(new RedBlackTree<T>());
+			locks.add(new ReentrantReadWriteLock());
+		}
+	}
+
+	/**
+	 * This method creates an empty ShardedSortedCollection whose shards receive about the same
+	 * number of values as the passed sample, by using the quantiles of the sample as splitters
+	 *
+	 * @param sample - values distributed like the values to be inserted, such as the movies of
+	 *                 a previous load
+	 * @param shardCount - the number of shards
+	 * @return an empty ShardedSortedCollection with up to shardCount shards
+	 * @throws IllegalArgumentException if shardCount is not positive
+	 */
+	public static <T extends Comparable<T>> ShardedSortedCollection<T> withBalancedShards(
+			List<? extends T> sample, int shardCount) {
+		return withBalancedShards(sample, shardCount, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * This method creates an empty ShardedSortedCollection like withBalancedShards(sample,
+	 * shardCount) does, whose insertAll uses up to the passed number of threads
+	 *
+	 * @param sample - values distributed like the values to be inserted
+	 * @param shardCount - the number of shards
+	 * @param parallelism - the number of threads filling the shards in insertAll
+	 * @return an empty ShardedSortedCollection with up to shardCount shards
+	 * @throws IllegalArgumentException if shardCount or parallelism is not positive
+	 */
+	public static <T extends Comparable<T>> ShardedSortedCollection<T> withBalancedShards(
+			List<? extends T> sample, int shardCount, int parallelism) {
+		if (shardCount < 1) {
+			throw new IllegalArgumentException("shardCount has to be positive");
+		}
+		List<T> sorted = new ArrayList<T>(sample);
+		Collections.sort(sorted);
+		List<T> splitters = new ArrayList<T>();
+		for (int i = 1; i < shardCount; ++i) {
+			T splitter = sorted.isEmpty() ? null : sorted.get((int) ((long) i * sorted.size()
+					/ shardCount));
+			// equal quantiles of a small or skewed sample would leave shards empty
+			if (splitter != null && (splitters.isEmpty()
+					|| splitters.get(splitters.size() - 1).compareTo(splitter) < 0)) {
+				splitters.add(splitter);
+			}
+		}
+		return new ShardedSortedCollection<T>(splitters, parallelism);
+	}
+
+	/**
+	 * Helper method that finds the shard a value belongs to
+	 */
+	private int shardOf(T data) {
+		int position = Collections.binarySearch(splitters, data);
+		// a splitter belongs to the shard it starts
+		return position >= 0 ? position + 1 : -position - 1;
+	}
+
+	/**
+	 * This method inserts the passed value into its shard, only locking that shard
+	 *
+	 * @param data - the value to be inserted
+	 * @return true if the value was inserted
+	 * @throws NullPointerException if data is null
+	 * @throws IllegalArgumentException if the collection already contains an equal value
+	 */
+	@Override
+	public boolean insert(T data) throws NullPointerException, IllegalArgumentException {
+		if (data == null) {
+			throw new NullPointerException("This ShardedSortedCollection cannot store null "
+					+ "references.");
+		}
+		int shard = shardOf(data);
+		locks.get(shard).writeLock().lock();
+		try {
+			return shards.get(shard).insert(data);
+		} finally {
+			locks.get(shard).writeLock().unlock();
+		}
+	}
+
+	/**
+	 * This method inserts all passed values, filling the shards in parallel on up to
+	 * parallelism threads of its own, so that a large insert does not hold up the parallel
+	 * streams of the process. The values are grouped by their shard first, and every shard
+	 * receiving values stays locked until all of them are inserted, so other threads never see
+	 * a part of the values.
+	 *
+	 * @param data - the values to be inserted, such as the movies returned by MovieLoader
+	 * @param duplicatePolicy - decides which value is kept when a value is equal to a value
+	 *                          within the collection or to another passed value
+	 * @throws NullPointerException if data contains a null reference
+	 * @throws IllegalArgumentException if a value is equal to another one and the policy is
+	 *                                  REJECT, in which case no value is inserted
+	 */
+	public void insertAll(List<? extends T> data, RedBlackTree.DuplicatePolicy duplicatePolicy) {
+		List<List<T>> valuesByShard = new ArrayList<List<T>>();
+		for (int i = 0; i < shards.size(); ++i) {
+			valuesByShard.add(new ArrayList<T>());
+		}
+		for (T value : data) {
+			if (value == null) {
+				throw new NullPointerException("This ShardedSortedCollection cannot store null "
+						+ "references.");
+			}
+			valuesByShard.get(shardOf(value)).add(value);
+		}
+		List<Integer> filledShards = new ArrayList<Integer>();
+		for (int shard = 0; shard < shards.size(); ++shard) {
+			if (!valuesByShard.get(shard).isEmpty()) {
+				filledShards.add(shard);
+			}
+		}
+
+		// the locks are taken in the order of the shards, so two calls cannot deadlock
+		for (int shard : filledShards) {
+			locks.get(shard).writeLock().lock();
+		}
+		try {
+			if (duplicatePolicy == RedBlackTree.DuplicatePolicy.REJECT) {
+				// every shard is checked before any of them is changed
+				forEachShard(filledShards, shard -> {
+					List<T> values = new ArrayList<T>(valuesByShard.get(shard));
+					Collections.sort(values);
+					for (int i = 0; i < values.size(); ++i) {
+						if ((i > 0 && values.get(i - 1).compareTo(values.get(i)) == 0)
+								|| shards.get(shard).contains(values.get(i))) {
+							throw new IllegalArgumentException("This ShardedSortedCollection "
+									+ "already contains that value.");
+						}
+					}
+				});
+			}
+			forEachShard(filledShards, shard -> {
+				RedBlackTree<T> tree = shards.get(shard);
+				for (T value : valuesByShard.get(shard)) {
+					if (!tree.contains(value)) {
+						tree.insert(value);
+					} else if (duplicatePolicy == RedBlackTree.DuplicatePolicy.KEEP_LAST) {
+						tree.update(value, value);
+					}
+				}
+			});
+		} finally {
+			for (int shard : filledShards) {
+				locks.get(shard).writeLock().unlock();
+			}
+		}
+	}
+
+	/**
+	 * Helper method that runs a task for every passed shard, on a pool of up to parallelism
+	 * threads, and passes on the first exception thrown by a task once all tasks are done.
+	 * The calling thread holds the locks of the shards, and the pool hands the shards over to
+	 * its threads and back.
+	 */
+	private void forEachShard(List<Integer> shardIndices, IntConsumer task) {
+		int threads = Math.min(parallelism, shardIndices.size());
+		if (threads <= 1) {
+			for (int shard : shardIndices) {
+				task.accept(shard);
+			}
+			return;
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(shardIndices.size());
+			for (int shard : shardIndices) {
+				tasks.add(() -> {
+					task.accept(shard);
+					return null;
+				});
+			}
+			for (Future<Void> done : executor.invokeAll(tasks)) {
+				done.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while inserting into the shards", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * This method removes the passed value from its shard, only locking that shard
+	 *
+	 * @param data - the value to be removed
+	 * @return true if the value was removed, false if the collection did not contain it
+	 * @throws NullPointerException if data is null
+	 */
+	public boolean remove(T data) throws NullPointerException {
+		if (data == null) {
+			throw new NullPointerException("This ShardedSortedCollection cannot store null "
+					+ "references.");
+		}
+		int shard = shardOf(data);
+		locks.get(shard).writeLock().lock();
+		try {
+			return shards.get(shard).remove(data);
+		} finally {
+			locks.get(shard).writeLock().unlock();
+		}
+	}
+
+	/**
+	 * This method checks whether the collection contains the passed value
+	 *
+	 * @param data - the value to look for
+	 * @return true if the collection contains the value, false otherwise
+	 * @throws NullPointerException if data is null
+	 */
+	@Override
+	public boolean contains(T data) {
+		if (data == null) {
+			throw new NullPointerException("This ShardedSortedCollection cannot store null "
+					+ "references.");
+		}
+		int shard = shardOf(data);
+		locks.get(shard).readLock().lock();
+		try {
+			return shards.get(shard).contains(data);
+		} finally {
+			locks.get(shard).readLock().unlock();
+		}
+	}
+
+	/**
+	 * This method returns the number of values in the collection, adding up the sizes of the
+	 * shards one after the other
+	 *
+	 * @return the number of values in the collection
+	 */
+	@Override
+	public int size() {
+		int size = 0;
+		for (int shard = 0; shard < shards.size(); ++shard) {
+			locks.get(shard).readLock().lock();
+			try {
+				size += shards.get(shard).size();
+			} finally {
+				locks.get(shard).readLock().unlock();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * This method checks whether the collection is empty
+	 *
+	 * @return true if the collection does not contain any value, false otherwise
+	 */
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * This method returns the number of shards
+	 *
+	 * @return the number of shards
+	 */
+	public int shardCount() {
+		return shards.size();
+	}
+
+	/**
+	 * This method counts the values that are greater than or equal to lo and smaller than hi,
+	 * only looking at the shards overlapping the range
+	 *
+	 * @param lo - the inclusive lower bound of the range
+	 * @param hi - the exclusive upper bound of the range
+	 * @return the number of values within the range
+	 * @throws NullPointerException if either of the bounds is null
+	 */
+	public int countInRange(T lo, T hi) {
+		if (lo == null || hi == null) {
+			throw new NullPointerException("The bounds of a range cannot be null references.");
+		}
+		int count = 0;
+		for (int shard = shardOf(lo); shard <= shardOf(hi) && shard < shards.size(); ++shard) {
+			locks.get(shard).readLock().lock();
+			try {
+				count += shards.get(shard).countInRange(lo, hi);
+			} finally {
+				locks.get(shard).readLock().unlock();
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * This method returns an iterator over the values in ascending order
+	 *
+	 * @return a weakly consistent iterator over the values of the collection
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		return new ShardIterator(0, null, null);
+	}
+
+	/**
+	 * This method returns an iterator over the values that are greater than or equal to lo and
+	 * smaller than hi, in ascending order, which only visits the shards overlapping the range
+	 *
+	 * @param lo - the inclusive lower bound of the range
+	 * @param hi - the exclusive upper bound of the range
+	 * @return a weakly consistent iterator over the values within the range
+	 * @throws NullPointerException if either of the bounds is null
+	 */
+	public Iterator<T> rangeIterator(T lo, T hi) {
+		if (lo == null || hi == null) {
+			throw new NullPointerException("The bounds of a range cannot be null references.");
+		}
+		return new ShardIterator(shardOf(lo), lo, hi);
+	}
+
+	/**
+	 * Iterator that reads the shards in ascending order, CHUNK_SIZE values at a time. Every
+	 * chunk is read under the shard's read lock, and the next chunk continues after the last
+	 * value returned, so changes made between two chunks do not disturb the iteration.
+	 */
+	private class ShardIterator implements Iterator<T> {
+		private int shard; // the shard the next chunk is read from
+		private T from; // the inclusive lower bound of the next chunk, null when unbounded
+		private boolean skipFrom = false; // true if from has been returned already
+		private final T hi; // the exclusive upper bound, null when unbounded
+		private final List<T> chunk = new ArrayList<T>(CHUNK_SIZE);
+		private int position = 0; // the position of the next value within the chunk
+
+		private ShardIterator(int shard, T lo, T hi) {
+			this.shard = shard;
+			this.from = lo;
+			this.hi = hi;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (position == chunk.size() && shard < shards.size()) {
+				readChunk();
+			}
+			return position < chunk.size();
+		}
+
+		@Override
+		public T next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException("There are no more elements in the range");
+			}
+			return chunk.get(position++);
+		}
+
+		/**
+		 * Helper method that reads the next chunk of the current shard, or moves on to the
+		 * next shard once the current one is exhausted
+		 */
+		private void readChunk() {
+			chunk.clear();
+			position = 0;
+			ReadWriteLock lock = locks.get(shard);
+			lock.readLock().lock();
+			try {
+				RedBlackTree<T> tree = shards.get(shard);
+				Iterator<T> values = from == null ? tree.iterator() : tree.tailIterator(from);
+				while (values.hasNext() && chunk.size() < CHUNK_SIZE) {
+					T value = values.next();
+					if (hi != null && value.compareTo(hi) >= 0) {
+						// no later shard holds values below hi either
+						shard = shards.size();
+						return;
+					}
+					if (skipFrom && value.compareTo(from) == 0) {
+						continue;
+					}
+					chunk.add(value);
+				}
+				if (chunk.size() < CHUNK_SIZE) {
+					shard++;
+					from = null;
+					skipFrom = false;
+				} else {
+					from = chunk.get(chunk.size() - 1);
+					skipFrom = true;
+				}
+			} finally {
+				lock.readLock().unlock();
+			}
+		}
+	}
+}
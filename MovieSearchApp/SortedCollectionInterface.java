@@ -0,0 +1,38 @@
+/**
+ * Methods to be implemented by sorted collections such as the RedBlackTree class
+ */
+public interface SortedCollectionInterface<T extends Comparable<T>> extends Iterable<T> {
+
+	/**
+	 * This method inserts the passed value into the collection
+	 * 
+	 * @param data - the value to be inserted
+	 * @return true if the value was inserted
+	 * @throws NullPointerException when the passed value is null
+	 * @throws IllegalArgumentException when the collection already contains an equal value
+	 */
+	public boolean insert(T data) throws NullPointerException, IllegalArgumentException;
+
+	/**
+	 * This method checks whether the collection contains the passed value
+	 * 
+	 * @param data - the value to look for
+	 * @return true if the collection contains the value, false otherwise
+	 * @throws NullPointerException when the passed value is null
+	 */
+	public boolean contains(T data);
+
+	/**
+	 * This method returns the number of values in the collection
+	 * 
+	 * @return the number of values in the collection
+	 */
+	public int size();
+
+	/**
+	 * This method checks whether the collection is empty
+	 * 
+	 * @return true if the collection does not contain any value, false otherwise
+	 */
+	public boolean isEmpty();
+}
@@ -0,0 +1,380 @@
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * This class implements an index of movie titles as a compressed trie (radix tree): every edge is
+ * labeled with a whole string instead of a single character, and nodes with a single child are
+ * merged with it. The titles are normalized before they are stored, so that searches ignore case,
+ * accents, and repeated spaces, and every stored title maps to the ordinals of its movies, such as
+ * their positions within the list returned by MovieLoader or within a MovieStore.
+ *
+ * The trie answers prefix queries for autocompletion by walking down the prefix and collecting
+ * the titles below it, and fuzzy queries by computing the rows of the Levenshtein distance matrix
+ * while walking down the trie, which simulates a Levenshtein automaton: titles sharing a prefix
+ * share its rows, and a branch is abandoned as soon as no title below it can be within the
+ * allowed number of edits. A prefix query stops once the requested number of matches is found, so
+ * its cost depends on the length of the prefix and the limit rather than on the catalog size. A
+ * fuzzy query visits every branch that stays within the allowed number of edits before it picks
+ * the closest matches, so its cost grows with the number of edits and the number of titles
+ * within them, and the limit only bounds the size of its result.
+ */
+public class TitleIndex {
+
+	/**
+	 * A node of the trie, reached through an edge labeled with a part of a title
+	 */
+	private static class Node {
+		private String label; // the characters on the edge leading to this node
+		private char[] keys = new char[0]; // the first character of every child's label, sorted
+		private Node[] children = new Node[0];
+		private int[] ordinals = new int[0]; // the ordinals of the titles ending here
+
+		private Node(String label) {
+			this.label = label;
+		}
+
+		/**
+		 * Helper method that returns the child whose label starts with the passed character
+		 */
+		private Node child(char key) {
+			int position = Arrays.binarySearch(keys, key);
+			return position >= 0 ? children[position] : null;
+		}
+
+		/**
+		 * Helper method that adds a child, keeping the children sorted by their first character
+		 */
+		private void addChild(Node child) {
+			int position = -Arrays.binarySearch(keys, child.label.charAt(0)) - 1;
+			keys = Arrays.copyOf(keys, keys.length + 1);
+			children = Arrays.copyOf(children, children.length + 1);
+			System.arraycopy(keys, position, keys, position + 1, keys.length - 1 - position);
+			System.arraycopy(children, position, children, position + 1,
+					children.length - 1 - position);
+			keys[position] = child.label.charAt(0);
+			children[position] = child;
+		}
+	}
+
+	private final Node root = new Node("");
+	private int size; // the number of ordinals within the index
+
+	/**
+	 * Constructor method so as to create an empty TitleIndex
+	 */
+	public TitleIndex() {
+	}
+
+	/**
+	 * Constructor method so as to create a TitleIndex of the passed movies, using their positions
+	 * within the list as their ordinals
+	 *
+	 * @param movies - the movies whose titles are indexed, such as the list returned by
+	 *                 MovieLoader
+	 */
+	public TitleIndex(List<? extends MovieDataInterface> movies) {
+		int ordinal = 0;
+		for (MovieDataInterface movie : movies) {
+			add(movie.getTitle(), ordinal++);
+		}
+	}
+
+	/**
+	 * This method normalizes a title the way the index does: accents are removed, the title is
+	 * turned into lower case, and runs of whitespace are replaced by a single space
+	 *
+	 * @param title - the title to be normalized
+	 * @return the normalized title
+	 */
+	public static String normalize(String title) {
+		String decomposed = Normalizer.normalize(title, Normalizer.Form.NFD);
+		StringBuilder normalized = new StringBuilder(decomposed.length());
+		boolean pendingSpace = false;
+		for (int i = 0; i < decomposed.length(); ++i) {
+			char c = decomposed.charAt(i);
+			if (Character.getType(c) == Character.NON_SPACING_MARK) {
+				continue;
+			}
+			if (Character.isWhitespace(c)) {
+				pendingSpace = normalized.length() > 0;
+				continue;
+			}
+			if (pendingSpace) {
+				normalized.append(' ');
+				pendingSpace = false;
+			}
+			normalized.append(c);
+		}
+		return normalized.toString().toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * This method adds a title to the index
+	 *
+	 * @param title - the title, which is normalized before it is stored
+	 * @param ordinal - the ordinal of the movie with the title
+	 * @throws NullPointerException if title is null
+	 */
+	public void add(String title, int ordinal) {
+		String key = normalize(title);
+		Node node = root;
+		int position = 0;
+		while (position < key.length()) {
+			Node child = node.child(key.charAt(position));
+			if (child == null) {
+				node.addChild(new Node(key.substring(position)));
+				node = node.child(key.charAt(position));
+				position = key.length();
+				break;
+			}
+			int common = commonPrefixLength(child.label, key, position);
+			if (common < child.label.length()) {
+				// splitting the edge where the title leaves it
+				Node split = new Node(child.label.substring(0, common));
+				child.label = child.label.substring(common);
+				split.addChild(child);
+				node.children[Arrays.binarySearch(node.keys, split.label.charAt(0))] = split;
+				child = split;
+			}
+			node = child;
+			position += common;
+		}
+		node.ordinals = Arrays.copyOf(node.ordinals, node.ordinals.length + 1);
+		node.ordinals[node.ordinals.length - 1] = ordinal;
+		size++;
+	}
+
+	/**
+	 * Helper method that returns the length of the common prefix of a label and the part of a key
+	 * starting at the passed position
+	 */
+	private static int commonPrefixLength(String label, String key, int position) {
+		int length = Math.min(label.length(), key.length() - position);
+		int common = 0;
+		while (common < length && label.charAt(common) == key.charAt(position + common)) {
+			common++;
+		}
+		return common;
+	}
+
+	/**
+	 * This method returns the ordinals of the movies whose normalized title equals the normalized
+	 * passed title
+	 *
+	 * @param title - the title to look for
+	 * @return the ordinals of the movies with that title, empty if there are none
+	 */
+	public int[] find(String title) {
+		String key = normalize(title);
+		Node node = root;
+		int position = 0;
+		while (position < key.length()) {
+			node = node.child(key.charAt(position));
+			if (node == null || !key.startsWith(node.label, position)) {
+				return new int[0];
+			}
+			position += node.label.length();
+		}
+		return node.ordinals.clone();
+	}
+
+	/**
+	 * This method returns the ordinals of the movies whose title starts with the passed prefix,
+	 * in the alphabetical order of the normalized titles, for autocompletion
+	 *
+	 * @param prefix - the start of the titles, such as what the user has typed so far
+	 * @param limit - the largest number of ordinals to be returned
+	 * @return up to limit ordinals of movies whose title starts with the prefix
+	 */
+	public int[] complete(String prefix, int limit) {
+		String key = normalize(prefix);
+		if (!key.isEmpty() && Character.isWhitespace(prefix.charAt(prefix.length() - 1))) {
+			// a space typed at the end asks for the next word, so it is kept
+			key += ' ';
+		}
+		Node node = root;
+		int position = 0;
+		while (position < key.length()) {
+			node = node.child(key.charAt(position));
+			if (node == null) {
+				return new int[0];
+			}
+			int common = commonPrefixLength(node.label, key, position);
+			if (common < node.label.length() && position + common < key.length()) {
+				// the prefix leaves the edge before its end
+				return new int[0];
+			}
+			position += common;
+		}
+		IntList found = new IntList();
+		collect(node, limit, found);
+		return found.toArray();
+	}
+
+	/**
+	 * Recursive helper method that collects the ordinals below a node in alphabetical order
+	 *
+	 * @return false once limit ordinals have been collected
+	 */
+	private static boolean collect(Node node, int limit, IntList found) {
+		for (int ordinal : node.ordinals) {
+			if (found.size >= limit) {
+				return false;
+			}
+			found.add(ordinal);
+		}
+		for (Node child : node.children) {
+			if (!collect(child, limit, found)) {
+				return false;
+			}
+		}
+		return found.size < limit;
+	}
+
+	/**
+	 * This method returns the ordinals of the movies whose normalized title is within the passed
+	 * number of edits (inserted, deleted, or replaced characters) of the normalized query, closest
+	 * titles first and alphabetically among titles at the same distance. Every title within
+	 * maxEdits of the query is found before the closest ones are returned, whatever the limit.
+	 *
+	 * @param query - the title to look for, possibly misspelled
+	 * @param maxEdits - the largest number of edits between the query and a title
+	 * @param limit - the largest number of ordinals to be returned
+	 * @return up to limit ordinals of movies whose title is close to the query
+	 * @throws IllegalArgumentException if maxEdits is negative
+	 */
+	public int[] fuzzyFind(String query, int maxEdits, int limit) {
+		if (maxEdits < 0) {
+			throw new IllegalArgumentException("maxEdits cannot be negative");
+		}
+		FuzzySearch search = new FuzzySearch(normalize(query), maxEdits);
+		search.collect(root, 0);
+
+		IntList found = new IntList();
+		for (int distance = 0; distance <= maxEdits && found.size < limit; ++distance) {
+			IntList matches = search.matches[distance];
+			for (int i = 0; i < matches.size && found.size < limit; ++i) {
+				found.add(matches.values[i]);
+			}
+		}
+		return found.toArray();
+	}
+
+	/**
+	 * The state of a fuzzy query: the rows of the Levenshtein distance matrix along the path
+	 * from the root to the current node, and the matches found so far. rows[t][i] is the
+	 * distance between the first i characters of the query and the first t characters of the
+	 * titles below the current node. Only the cells within maxEdits of the diagonal are
+	 * computed, as every other cell is larger than maxEdits anyway.
+	 */
+	private static class FuzzySearch {
+		private final String key;
+		private final int maxEdits;
+		private int[][] rows;
+		private final IntList[] matches; // the matches at every distance, in alphabetical order
+
+		private FuzzySearch(String key, int maxEdits) {
+			this.key = key;
+			this.maxEdits = maxEdits;
+			rows = new int[key.length() + maxEdits + 2][];
+			rows[0] = new int[key.length() + 1];
+			for (int i = 0; i <= key.length(); ++i) {
+				rows[0][i] = Math.min(i, maxEdits + 1);
+			}
+			matches = new IntList[maxEdits + 1];
+			for (int i = 0; i <= maxEdits; ++i) {
+				matches[i] = new IntList();
+			}
+		}
+
+		/**
+		 * Recursive helper method that collects the titles below a node which are within
+		 * maxEdits of the query, extending the rows by the label of every child
+		 *
+		 * @param node - the current node
+		 * @param depth - the number of characters on the path to the node
+		 */
+		private void collect(Node node, int depth) {
+			int distance = rows[depth][key.length()];
+			if (distance <= maxEdits) {
+				for (int ordinal : node.ordinals) {
+					matches[distance].add(ordinal);
+				}
+			}
+			for (Node child : node.children) {
+				int childDepth = depth;
+				boolean reachable = true;
+				for (int j = 0; j < child.label.length() && reachable; ++j) {
+					reachable = nextRow(childDepth++, child.label.charAt(j));
+				}
+				if (reachable) {
+					collect(child, childDepth);
+				}
+			}
+		}
+
+		/**
+		 * Helper method that computes the row after the passed one, for titles extended by the
+		 * passed character
+		 *
+		 * @return true if a cell of the new row is within maxEdits, false if no title below
+		 *         can be within maxEdits of the query
+		 */
+		private boolean nextRow(int depth, char c) {
+			if (depth + 1 >= rows.length) {
+				// titles this much longer than the query are too far away
+				return false;
+			}
+			int[] row = rows[depth];
+			int[] next = rows[depth + 1];
+			if (next == null) {
+				next = new int[row.length];
+				rows[depth + 1] = next;
+			}
+			int t = depth + 1;
+			int from = Math.max(1, t - maxEdits);
+			int to = Math.min(key.length(), t + maxEdits);
+			int tooFar = maxEdits + 1;
+			Arrays.fill(next, tooFar);
+			next[0] = Math.min(t, tooFar);
+			int min = next[0];
+			for (int i = from; i <= to; ++i) {
+				int replace = row[i - 1] + (key.charAt(i - 1) == c ? 0 : 1);
+				int value = Math.min(replace, Math.min(row[i] + 1, next[i - 1] + 1));
+				next[i] = Math.min(value, tooFar);
+				min = Math.min(min, next[i]);
+			}
+			return min <= maxEdits;
+		}
+	}
+
+	/**
+	 * This method returns the number of titles within the index
+	 *
+	 * @return the number of titles within the index, counting every movie separately
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * A growable array of ints, which avoids boxing the collected ordinals
+	 */
+	private static class IntList {
+		private int[] values = new int[8];
+		private int size;
+
+		private void add(int value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+
+		private int[] toArray() {
+			return Arrays.copyOf(values, size);
+		}
+	}
+}
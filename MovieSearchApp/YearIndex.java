@@ -0,0 +1,199 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * This class implements a secondary index of movies by their publishing year. For every year that
+ * occurs among the movies, the index keeps a run of that year's movies sorted like a RedBlackTree
+ * of MovieData, i.e. by rating and then by title. A query for a range of years only looks at the
+ * runs of those years, and within a run the movies of a rating range are found by binary search,
+ * so the movies of unrelated years are never touched.
+ *
+ * The index is a snapshot of the movies it was built from.
+ */
+public class YearIndex {
+	private final int[] years; // the years that occur among the movies, in ascending order
+	private final MovieData[][] runs; // the movies of every year, sorted in ascending order
+	private final int size;
+
+	/**
+	 * Constructor method so as to create a YearIndex of the passed movies
+	 *
+	 * @param movies - the movies to be indexed, such as a RedBlackTree or the list returned by
+	 *                 MovieLoader
+	 */
+	public YearIndex(Iterable<? extends MovieDataInterface> movies) {
+		TreeMap<Integer, List<MovieData>> moviesByYear = new TreeMap<Integer, List<MovieData>>();
+		int count = 0;
+		for (MovieDataInterface movie : movies) {
+			List<MovieData> run = moviesByYear.get(movie.getYear());
+			if (run == null) {
+				run = new ArrayList<MovieData>();
+				moviesByYear.put(movie.getYear(), run);
+			}
+			run.add(MovieData.of(movie));
+			count++;
+		}
+		years = new int[moviesByYear.size()];
+		runs = new MovieData[moviesByYear.size()][];
+		int i = 0;
+		for (Map.Entry<Integer, List<MovieData>> entry : moviesByYear.entrySet()) {
+			years[i] = entry.getKey();
+			// sorting takes linear time when the movies come from a sorted collection already
+			runs[i] = entry.getValue().toArray(new MovieData[0]);
+			Arrays.sort(runs[i]);
+			i++;
+		}
+		size = count;
+	}
+
+	/**
+	 * This method returns the movies published between the passed years whose rating lies between
+	 * the passed ratings (all bounds included), ordered by year and then like a RedBlackTree
+	 *
+	 * @param firstYear - the first year to be included
+	 * @param lastYear - the last year to be included
+	 * @param lowestRating - the lowest rating to be included
+	 * @param highestRating - the highest rating to be included
+	 * @return the movies published and rated within the ranges
+	 */
+	public List<MovieData> find(int firstYear, int lastYear, double lowestRating,
+			double highestRating) {
+		List<MovieData> found = new ArrayList<MovieData>();
+		for (int i = firstRun(firstYear); i < endRun(lastYear); ++i) {
+			int from = positionOf(runs[i], MovieData.ratingLowerBound(lowestRating));
+			int to = positionOf(runs[i], MovieData.ratingUpperBound(highestRating));
+			for (int j = from; j < to; ++j) {
+				found.add(runs[i][j]);
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * This method counts the movies published between the passed years whose rating lies between
+	 * the passed ratings (all bounds included), without collecting them
+	 *
+	 * @param firstYear - the first year to be included
+	 * @param lastYear - the last year to be included
+	 * @param lowestRating - the lowest rating to be included
+	 * @param highestRating - the highest rating to be included
+	 * @return the number of movies published and rated within the ranges
+	 */
+	public int count(int firstYear, int lastYear, double lowestRating, double highestRating) {
+		int count = 0;
+		for (int i = firstRun(firstYear); i < endRun(lastYear); ++i) {
+			count += Math.max(0, positionOf(runs[i], MovieData.ratingUpperBound(highestRating))
+					- positionOf(runs[i], MovieData.ratingLowerBound(lowestRating)));
+		}
+		return count;
+	}
+
+	/**
+	 * This method returns the k best rated movies published between the passed years, best
+	 * first. The runs are merged from their ends with a priority queue holding one movie per
+	 * year, so only k movies are visited.
+	 *
+	 * @param firstYear - the first year to be included
+	 * @param lastYear - the last year to be included
+	 * @param k - the number of movies to be returned
+	 * @return up to k movies in descending order
+	 * @throws IllegalArgumentException if k is negative
+	 */
+	public List<MovieData> topRated(int firstYear, int lastYear, int k) {
+		if (k < 0) {
+			throw new IllegalArgumentException("k cannot be negative");
+		}
+		// every entry holds the index of a run and the position of its next best movie
+		PriorityQueue<int[]> candidates = new PriorityQueue<int[]>(
+				(a, b) -> runs[b[0]][b[1]].compareTo(runs[a[0]][a[1]]));
+		for (int i = firstRun(firstYear); i < endRun(lastYear); ++i) {
+			candidates.add(new int[] { i, runs[i].length - 1 });
+		}
+		List<MovieData> best = new ArrayList<MovieData>(Math.min(k, size));
+		while (best.size() < k && !candidates.isEmpty()) {
+			int[] candidate = candidates.poll();
+			best.add(runs[candidate[0]][candidate[1]]);
+			if (candidate[1] > 0) {
+				candidate[1]--;
+				candidates.add(candidate);
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * This method returns the k best rated movies of every year between the passed years, which
+	 * are read right from the end of each year's run
+	 *
+	 * @param firstYear - the first year to be included
+	 * @param lastYear - the last year to be included
+	 * @param k - the number of movies to be returned per year
+	 * @return a map from every year with movies to up to k of its movies in descending order,
+	 *         iterating over the years in ascending order
+	 * @throws IllegalArgumentException if k is negative
+	 */
+	public Map<Integer, List<MovieData>> topRatedPerYear(int firstYear, int lastYear, int k) {
+		if (k < 0) {
+			throw new IllegalArgumentException("k cannot be negative");
+		}
+		Map<Integer, List<MovieData>> best = new LinkedHashMap<Integer, List<MovieData>>();
+		for (int i = firstRun(firstYear); i < endRun(lastYear); ++i) {
+			List<MovieData> bestOfYear = new ArrayList<MovieData>(Math.min(k, runs[i].length));
+			for (int j = runs[i].length - 1; j >= 0 && bestOfYear.size() < k; --j) {
+				bestOfYear.add(runs[i][j]);
+			}
+			best.put(years[i], bestOfYear);
+		}
+		return best;
+	}
+
+	/**
+	 * This method returns the years that occur among the movies of the index
+	 *
+	 * @return the years in ascending order
+	 */
+	public int[] years() {
+		return years.clone();
+	}
+
+	/**
+	 * This method returns the number of movies within the index
+	 *
+	 * @return the number of movies within the index
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Helper method that finds the index of the first run of a year at or after the passed year
+	 */
+	private int firstRun(int firstYear) {
+		int position = Arrays.binarySearch(years, firstYear);
+		return position >= 0 ? position : -position - 1;
+	}
+
+	/**
+	 * Helper method that finds the index of the first run of a year after the passed year
+	 */
+	private int endRun(int lastYear) {
+		if (lastYear == Integer.MAX_VALUE) {
+			return years.length;
+		}
+		return firstRun(lastYear + 1);
+	}
+
+	/**
+	 * Helper method that finds the position of the first movie of a run which is not smaller than
+	 * the passed bound
+	 */
+	private static int positionOf(MovieData[] run, MovieData bound) {
+		int position = Arrays.binarySearch(run, bound);
+		return position >= 0 ? position : -position - 1;
+	}
+}
@@ -0,0 +1,82 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of the CatalogSnapshot class
+ */
+public class CatalogSnapshotTest {
+    private static final String CSV_FILE = "NetflixOriginals.csv";
+
+    @Test
+    public void warmStartReadsTheSnapshot(@TempDir Path directory) throws Exception {
+        Path csv = Files.copy(Paths.get(CSV_FILE), directory.resolve("movies.csv"));
+        String snapshot = directory.resolve("movies.snapshot").toString();
+        RedBlackTree<MovieData> loaded = CatalogSnapshot.load(csv.toString(), snapshot,
+                new MovieLoader(), RedBlackTree.DuplicatePolicy.KEEP_FIRST);
+        List<File> sources = CatalogSnapshot.sourceFiles(csv.toString());
+        RedBlackTree<MovieData> read = CatalogSnapshot.read(snapshot, sources);
+        assertNotNull(read);
+        assertEquals(loaded.size(), read.size());
+    }
+
+    @Test
+    public void snapshotDescribesTheFilesAsTheyWereLoaded(@TempDir Path directory)
+            throws Exception {
+        Path csv = Files.copy(Paths.get(CSV_FILE), directory.resolve("movies.csv"));
+        String snapshot = directory.resolve("movies.snapshot").toString();
+        List<File> sources = CatalogSnapshot.sourceFiles(csv.toString());
+        List<CatalogSnapshot.SourceFile> fingerprints = CatalogSnapshot.fingerprintsOf(sources);
+        RedBlackTree<MovieData> tree = MovieData.buildTree(new MovieLoader().loadFile(
+                csv.toString()), RedBlackTree.DuplicatePolicy.KEEP_FIRST);
+        // the file changes after it has been loaded, but before the snapshot is written
+        Files.write(csv, "\n".getBytes(), StandardOpenOption.APPEND);
+        CatalogSnapshot.write(snapshot, tree, fingerprints);
+        assertFalse(CatalogSnapshot.isUpToDate(snapshot, sources));
+    }
+
+    @Test
+    public void touchedFilesAreComparedByChecksum(@TempDir Path directory) throws Exception {
+        Path csv = Files.copy(Paths.get(CSV_FILE), directory.resolve("movies.csv"));
+        String snapshot = directory.resolve("movies.snapshot").toString();
+        CatalogSnapshot.load(csv.toString(), snapshot, new MovieLoader(),
+                RedBlackTree.DuplicatePolicy.KEEP_FIRST);
+        List<File> sources = CatalogSnapshot.sourceFiles(csv.toString());
+        File file = csv.toFile();
+
+        // the same content with a new modification time is still up to date
+        assertTrue(file.setLastModified(file.lastModified() + 60_000));
+        assertTrue(CatalogSnapshot.isUpToDate(snapshot, sources));
+
+        // other content of the same size with a new modification time is stale
+        byte[] content = Files.readAllBytes(csv);
+        content[content.length - 3] ^= 1;
+        Files.write(csv, content);
+        assertTrue(file.setLastModified(file.lastModified() + 120_000));
+        assertFalse(CatalogSnapshot.isUpToDate(snapshot, sources));
+    }
+
+    @Test
+    public void noSnapshotIsWrittenWhenAFileFails(@TempDir Path directory) throws Exception {
+        Path csvDirectory = Files.createDirectory(directory.resolve("csv"));
+        Files.copy(Paths.get(CSV_FILE), csvDirectory.resolve("a.csv"));
+        Files.write(csvDirectory.resolve("b.csv"), "Name,Year\nx,2020\n".getBytes());
+        Path snapshot = directory.resolve("movies.snapshot");
+        assertThrows(IllegalArgumentException.class, () -> CatalogSnapshot.load(
+                csvDirectory.toString(), snapshot.toString(), new MovieLoader(),
+                RedBlackTree.DuplicatePolicy.KEEP_FIRST));
+        assertFalse(Files.exists(snapshot));
+    }
+}
@@ -0,0 +1,140 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of the IncrementalLoader class against the trees its deltas are applied to
+ */
+public class IncrementalLoaderTest {
+    private static final String HEADER = "Title,Genre,Premiere,Runtime,IMDB Score,Language";
+
+    private static void writeCsv(Path file, String... rows) throws IOException {
+        List<String> lines = new ArrayList<String>();
+        lines.add(HEADER);
+        lines.addAll(Arrays.asList(rows));
+        Files.write(file, lines);
+    }
+
+    private static String row(String title, int year, double rating) {
+        return title + ",Drama,\"August 5, " + year + "\",90," + rating + ",English";
+    }
+
+    private static List<String> moviesOf(Iterable<MovieData> movies) {
+        List<String> found = new ArrayList<String>();
+        for (MovieData movie : movies) {
+            found.add(movie.getTitle() + " " + movie.getYear() + " " + movie.getRating());
+        }
+        return found;
+    }
+
+    /**
+     * Helper method that builds the tree of the files as they are loaded now, which is what the
+     * deltas have to turn the tree into
+     */
+    private static RedBlackTree<MovieData> expectedTree(IncrementalLoader loader) {
+        return new RedBlackTree<MovieData>(loader.getMovies(),
+                RedBlackTree.DuplicatePolicy.KEEP_FIRST);
+    }
+
+    @Test
+    public void movieHeldByTwoFilesStaysUntilBothDropIt(@TempDir Path directory)
+            throws Exception {
+        writeCsv(directory.resolve("a.csv"), row("Foo", 2019, 5.5), row("Bar", 2020, 6.5));
+        writeCsv(directory.resolve("b.csv"), row("Foo", 2019, 5.5));
+        IncrementalLoader loader = new IncrementalLoader(directory.toString(), new MovieLoader());
+        RedBlackTree<MovieData> tree = new RedBlackTree<MovieData>();
+        loader.load(delta -> delta.applyTo(tree));
+        assertEquals(2, tree.size());
+
+        writeCsv(directory.resolve("b.csv"));
+        assertTrue(loader.reload(Arrays.asList("b.csv"), delta -> delta.applyTo(tree)).isEmpty());
+        assertEquals(Arrays.asList("Foo 2019 5.5", "Bar 2020 6.5"), moviesOf(tree));
+
+        writeCsv(directory.resolve("a.csv"), row("Bar", 2020, 6.5));
+        CatalogDelta delta = loader.reload(Arrays.asList("a.csv"), d -> d.applyTo(tree));
+        assertEquals(1, delta.getRemoved().size());
+        assertEquals(Arrays.asList("Bar 2020 6.5"), moviesOf(tree));
+    }
+
+    @Test
+    public void moviesOfTheSameRatingAndTitleShareTheTree(@TempDir Path directory)
+            throws Exception {
+        writeCsv(directory.resolve("a.csv"), row("Foo", 2019, 5.5));
+        writeCsv(directory.resolve("b.csv"), row("Foo", 2020, 5.5));
+        IncrementalLoader loader = new IncrementalLoader(directory.toString(), new MovieLoader());
+        RedBlackTree<MovieData> tree = new RedBlackTree<MovieData>();
+        loader.load(delta -> delta.applyTo(tree));
+        assertEquals(Arrays.asList("Foo 2019 5.5"), moviesOf(tree));
+
+        // the tree takes the movie of the other file instead of losing it
+        Files.delete(directory.resolve("a.csv"));
+        CatalogDelta delta = loader.rescan(d -> d.applyTo(tree));
+        assertEquals(1, delta.getChanged().size());
+        assertEquals(Arrays.asList("Foo 2020 5.5"), moviesOf(tree));
+    }
+
+    @Test
+    public void failedApplyIsForgotten(@TempDir Path directory) throws Exception {
+        writeCsv(directory.resolve("a.csv"), row("Foo", 2019, 5.5), row("Bar", 2020, 6.5));
+        IncrementalLoader loader = new IncrementalLoader(directory.toString(), new MovieLoader());
+        ConcurrentCatalog<MovieData> catalog = new ConcurrentCatalog<MovieData>();
+        loader.load(delta -> catalog.update(delta::applyTo));
+
+        writeCsv(directory.resolve("a.csv"), row("Foo", 2019, 7.5), row("Baz", 2021, 4.5));
+        assertThrows(IllegalStateException.class, () -> loader.reload(Arrays.asList("a.csv"),
+                delta -> catalog.update(tree -> {
+                    delta.applyTo(tree);
+                    throw new IllegalStateException("the batch is dropped");
+                })));
+        // neither the catalog nor the loader kept the changes
+        assertEquals(Arrays.asList("Foo 2019 5.5", "Bar 2020 6.5"), moviesOf(catalog));
+        assertEquals(moviesOf(catalog), moviesOf(expectedTree(loader)));
+
+        // so the next rescan finds them again
+        CatalogDelta delta = loader.reload(Arrays.asList("a.csv"),
+                d -> catalog.update(d::applyTo));
+        assertEquals(1, delta.getChanged().size());
+        assertEquals(1, delta.getAdded().size());
+        assertEquals(1, delta.getRemoved().size());
+        assertEquals(moviesOf(expectedTree(loader)), moviesOf(catalog));
+    }
+
+    @Test
+    public void randomReloadsKeepTheTreeInStep(@TempDir Path directory) throws Exception {
+        Random random = new Random(7);
+        String[] files = { "a.csv", "b.csv", "c.csv" };
+        IncrementalLoader loader = new IncrementalLoader(directory.toString(), new MovieLoader());
+        RedBlackTree<MovieData> tree = new RedBlackTree<MovieData>();
+        for (int round = 0; round < 200; ++round) {
+            String file = files[random.nextInt(files.length)];
+            List<String> rows = new ArrayList<String>();
+            for (int i = random.nextInt(6); i > 0; --i) {
+                // few titles, years, and ratings, so files keep sharing movies
+                rows.add(row("T" + random.nextInt(4), 2018 + random.nextInt(2),
+                        5 + random.nextInt(3)));
+            }
+            if (rows.isEmpty() && random.nextBoolean()) {
+                Files.deleteIfExists(directory.resolve(file));
+            } else {
+                writeCsv(directory.resolve(file), rows.toArray(new String[0]));
+            }
+            loader.reload(Arrays.asList(file), delta -> delta.applyTo(tree));
+            assertEquals(expectedTree(loader).size(), tree.size(), "round " + round);
+            RedBlackTree<MovieData> expected = expectedTree(loader);
+            for (MovieData movie : tree) {
+                assertTrue(expected.contains(movie), "round " + round);
+            }
+        }
+    }
+}
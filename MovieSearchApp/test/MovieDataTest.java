@@ -0,0 +1,35 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the range queries of the MovieData class
+ */
+public class MovieDataTest {
+
+	private static RedBlackTree<MovieData> treeOf(double... ratings) {
+		List<MovieDataInterface> movies = new ArrayList<MovieDataInterface>();
+		for (double rating : ratings)
+			movies.add(new MovieData("Movie " + rating, rating, 2020, "Drama"));
+		return MovieData.buildStatisticsTree(movies, RedBlackTree.DuplicatePolicy.REJECT);
+	}
+
+	@Test
+	public void ratingsOnABucketBoundStartTheNextBucket() {
+		// 0.0 + 3 * 0.1 is 0.30000000000000004, which lies just above the rating 0.3
+		RedBlackTree<MovieData> tree = treeOf(0.0, 0.1, 0.2, 0.3, 0.4, 0.5, 0.6, 0.7, 0.8, 0.9);
+		assertArrayEquals(new int[] { 1, 1, 1, 1, 1, 1, 1, 1, 1, 1 },
+				MovieData.ratingHistogram(tree, 0.0, 0.1, 10));
+	}
+
+	@Test
+	public void ratingsOfTheDataFallIntoHalfPointBuckets() {
+		RedBlackTree<MovieData> tree = treeOf(5.5, 5.9, 6.0, 6.4, 6.5, 6.9, 7.0, 7.4, 7.5);
+		assertArrayEquals(new int[] { 2, 2, 2, 2 }, MovieData.ratingHistogram(tree, 5.5, 0.5, 4));
+		assertEquals(6.1, MovieData.averageRating(tree, 5.9, 6.4), 1e-9);
+	}
+}
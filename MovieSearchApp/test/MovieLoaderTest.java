@@ -0,0 +1,119 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.FileNotFoundException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of the MovieLoader class against the NetflixOriginals.csv file
+ */
+public class MovieLoaderTest {
+    private static final String CSV_FILE = "NetflixOriginals.csv";
+
+    private static List<String> rowsOf(List<? extends MovieDataInterface> movies) {
+        List<String> rows = new ArrayList<String>();
+        for (MovieDataInterface movie : movies) {
+            rows.add(movie.getTitle() + "|" + movie.getGenre() + "|" + movie.getYear() + "|"
+                    + movie.getRating());
+        }
+        return rows;
+    }
+
+    private static List<String> titlesOf(List<MovieDataInterface> movies) {
+        List<String> titles = new ArrayList<String>();
+        for (MovieDataInterface movie : movies) {
+            titles.add(movie.getTitle());
+        }
+        return titles;
+    }
+
+    @Test
+    public void loadsNonAsciiTitlesInTheDefaultCharset() throws Exception {
+        List<String> titles = titlesOf(new MovieLoader().loadFile(CSV_FILE));
+        assertTrue(titles.contains("Como Caído del Cielo"));
+        assertTrue(titles.contains("Tribhanga – Tedhi Medhi Crazy"));
+    }
+
+    @Test
+    public void decodesTheFileInThePassedCharset() throws Exception {
+        List<String> titles = titlesOf(new MovieLoader(MovieLoader.ReadMode.STREAMING, 1,
+                StandardCharsets.ISO_8859_1).loadFile(CSV_FILE));
+        assertTrue(titles.contains("Como Caído del Cielo"));
+        assertEquals(titlesOf(new MovieLoader().loadFile(CSV_FILE)).size(), titles.size());
+    }
+
+    @Test
+    public void memoryMappedModeDecodesTheSameTitles() throws Exception {
+        List<String> mapped = titlesOf(new MovieLoader(MovieLoader.ReadMode.MEMORY_MAPPED)
+                .loadFile(CSV_FILE));
+        assertTrue(mapped.contains("Como Caído del Cielo"));
+        assertEquals(titlesOf(new MovieLoader().loadFile(CSV_FILE)), mapped);
+    }
+
+    @Test
+    public void smallWindowsParseLikeTheStreamingMode(@TempDir Path directory) throws Exception {
+        // a title and a premiere with escaped quotes that are longer than the initial scratch
+        // array, which the year is parsed from after the array has grown
+        StringBuilder title = new StringBuilder();
+        while (title.length() < 600) {
+            title.append("The \"\"Long\"\" Title ");
+        }
+        Path csvFile = directory.resolve("movies.csv");
+        Files.copy(Paths.get(CSV_FILE), csvFile);
+        Files.write(csvFile, ("\"" + title + "\",Drama,\"" + title + "May 1, 2020\",90,6.5,"
+                + "English\n").getBytes(MovieLoader.DEFAULT_CHARSET), StandardOpenOption.APPEND);
+
+        List<MovieData> mapped = new ArrayList<MovieData>();
+        try (MappedMovieParser parser = new MappedMovieParser(csvFile.toString(),
+                MovieLoader.DEFAULT_CHARSET, 2048)) {
+            parser.parse(parser.dataStart(), parser.size(), mapped::add);
+        }
+        List<MovieDataInterface> streamed = new MovieLoader().loadFile(csvFile.toString());
+        assertEquals(rowsOf(streamed), rowsOf(mapped));
+        MovieData last = mapped.get(mapped.size() - 1);
+        assertEquals(title.toString().replace("\"\"", "\""), last.getTitle());
+        assertEquals(2020, last.getYear());
+    }
+
+    @Test
+    public void loadsEveryCsvFileOfADirectory(@TempDir Path directory) throws Exception {
+        Files.copy(Paths.get(CSV_FILE), directory.resolve("a.csv"));
+        Files.copy(Paths.get(CSV_FILE), directory.resolve("b.csv"));
+        List<String> titles = titlesOf(new MovieLoader().loadFile(CSV_FILE));
+        List<String> twice = new ArrayList<String>(titles);
+        twice.addAll(titles);
+        assertEquals(twice, titlesOf(new MovieLoader().loadFilesInDirectory(directory.toString())));
+    }
+
+    @Test
+    public void failsTheDirectoryLoadWhenAFileFails(@TempDir Path directory) throws Exception {
+        Files.copy(Paths.get(CSV_FILE), directory.resolve("a.csv"));
+        Files.write(directory.resolve("b.csv"), "Name,Year\nx,2020\n".getBytes());
+        MovieLoader loader = new MovieLoader(MovieLoader.ReadMode.STREAMING, 2);
+        assertThrows(IllegalArgumentException.class,
+                () -> loader.loadFilesInDirectory(directory.toString()));
+        assertEquals(1, loader.loadDirectory(directory.toString(), true).getFailedFiles().size());
+    }
+
+    @Test
+    public void missingFilesAreNotFoundInBothReadModes(@TempDir Path directory) {
+        String missing = directory.resolve("missing.csv").toString();
+        for (MovieLoader.ReadMode readMode : MovieLoader.ReadMode.values()) {
+            MovieLoader loader = new MovieLoader(readMode);
+            assertThrows(FileNotFoundException.class, () -> loader.loadFile(missing));
+            assertThrows(FileNotFoundException.class, () -> loader.load(missing, movie -> {
+            }));
+            assertThrows(FileNotFoundException.class, () -> loader.stream(missing));
+        }
+    }
+}
@@ -0,0 +1,109 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the RatingIndex class, whose keys have to be ordered like movies within a
+ * RedBlackTree once their ratings are rounded to a float, with the ordinal as the title
+ */
+public class RatingIndexTest {
+
+	private static final double[] RATINGS = { -0.0, 0.0, 2.5, 5.0, 6.1, 7.1, 7.5, 9.9 };
+
+	private static MovieData movieOf(double rating, int ordinal) {
+		return new MovieData(String.format("%06d", ordinal), (float) rating, 2020, "Drama");
+	}
+
+	private static List<Integer> ordinalsOf(Iterator<MovieData> movies) {
+		List<Integer> ordinals = new ArrayList<Integer>();
+		while (movies.hasNext())
+			ordinals.add(Integer.parseInt(movies.next().getTitle()));
+		return ordinals;
+	}
+
+	private static List<Integer> ordinalsOf(PrimitiveIterator.OfLong keys) {
+		List<Integer> ordinals = new ArrayList<Integer>();
+		while (keys.hasNext())
+			ordinals.add(RatingIndex.ordinal(keys.nextLong()));
+		return ordinals;
+	}
+
+	@Test
+	public void keysAreOrderedLikeTheRedBlackTree() {
+		RatingIndex index = new RatingIndex();
+		RedBlackTree<MovieData> tree = new RedBlackTree<MovieData>();
+		List<Integer> ordinals = new ArrayList<Integer>();
+		for (int ordinal = 0; ordinal < 5000; ++ordinal)
+			ordinals.add(ordinal);
+		Random random = new Random(13);
+		Collections.shuffle(ordinals, random);
+		long[] keys = new long[ordinals.size()];
+		for (int i = 0; i < ordinals.size(); ++i) {
+			int ordinal = ordinals.get(i);
+			double rating = RATINGS[random.nextInt(RATINGS.length)];
+			if (random.nextBoolean()) {
+				// rounds to the same float, so the ordinal decides the order
+				rating += 1e-9;
+			}
+			assertFalse(index.contains(rating, ordinal));
+			assertTrue(index.insert(rating, ordinal));
+			keys[i] = RatingIndex.key(rating, ordinal);
+			tree.insert(movieOf(rating, ordinal));
+			assertTrue(index.contains(rating, ordinal));
+			assertEquals(tree.size(), index.size());
+			// every few hundred insertions, the pending keys are part full, full, or just merged
+			if (i % 301 == 0 || i % 256 == 255 || i % 256 == 0)
+				assertEquals(ordinalsOf(tree.iterator()), ordinalsOf(index.iterator()), "" + i);
+		}
+		assertEquals(ordinalsOf(tree.iterator()), ordinalsOf(index.iterator()));
+
+		// the first key has been merged, the last one is still pending
+		for (long key : new long[] { keys[0], keys[keys.length - 1] }) {
+			assertTrue(index.contains(key));
+			assertThrows(IllegalArgumentException.class, () -> index.insert(key));
+			assertFalse(index.contains(RatingIndex.rating(key), RatingIndex.ordinal(key) + 5000));
+		}
+		assertEquals(5000, index.size());
+	}
+
+	@Test
+	public void rangesAreTheRangesOfTheRedBlackTree() {
+		RatingIndex index = new RatingIndex();
+		RedBlackTree<MovieData> tree = new RedBlackTree<MovieData>();
+		Random random = new Random(5);
+		// 700 keys leave some of them pending after two merges
+		for (int ordinal = 699; ordinal >= 0; --ordinal) {
+			double rating = RATINGS[random.nextInt(RATINGS.length)] + (ordinal % 2) * 1e-9;
+			index.insert(rating, ordinal);
+			tree.insert(movieOf(rating, ordinal));
+		}
+		for (double[] range : new double[][] { { 0.0, 10.0 }, { 2.5, 7.1 }, { 6.1, 6.1 },
+				{ 7.5, 9.9 }, { 3.0, 4.0 } }) {
+			MovieData lo = new MovieData("", (float) range[0], 2020, "Drama");
+			MovieData hi = new MovieData("", (float) range[1], 2020, "Drama");
+			assertEquals(ordinalsOf(tree.rangeIterator(lo, hi)), ordinalsOf(index.rangeIterator(
+					RatingIndex.key(range[0], 0), RatingIndex.key(range[1], 0))));
+
+			List<Integer> rated = new ArrayList<Integer>();
+			for (MovieData movie : tree) {
+				if (movie.getRating() >= (float) range[0] && movie.getRating() <= (float) range[1])
+					rated.add(Integer.parseInt(movie.getTitle()));
+			}
+			List<Integer> ordinals = new ArrayList<Integer>();
+			index.ordinalsRatedBetween(range[0], range[1]).forEachRemaining(
+					(int ordinal) -> ordinals.add(ordinal));
+			assertEquals(rated, ordinals);
+		}
+		assertEquals((float) 7.1, (float) RatingIndex.rating(RatingIndex.key(7.1 + 1e-9, 3)));
+	}
+}
@@ -0,0 +1,214 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the same operations against a RedBlackTree and the other implementations of
+ * SortedCollectionInterface, which have to behave the same way
+ */
+public class SortedCollectionContractTest {
+
+	/**
+	 * The implementations compared with the RedBlackTree. The splitters of the
+	 * ShardedSortedCollection leave more than a chunk of values in every shard, so its
+	 * iterators have to resume within a shard.
+	 */
+	private static final List<Supplier<SortedCollectionInterface<Integer>>> IMPLEMENTATIONS =
+			List.of(EytzingerTree::new,
+					() -> new ShardedSortedCollection<Integer>(List.of(1000, 2000), 2),
+					ConcurrentCatalog::new);
+
+	private static List<Integer> valuesOf(SortedCollectionInterface<Integer> collection) {
+		List<Integer> values = new ArrayList<Integer>();
+		for (Integer value : collection)
+			values.add(value);
+		return values;
+	}
+
+	/**
+	 * Helper method that runs an operation against both collections and checks that they both
+	 * return the same result or both throw the same kind of exception
+	 */
+	private static void assertSameOutcome(String operation, Runnable onTree, Runnable onOther) {
+		Class<?> treeFailure = null;
+		Class<?> otherFailure = null;
+		try {
+			onTree.run();
+		} catch (RuntimeException e) {
+			treeFailure = e.getClass();
+		}
+		try {
+			onOther.run();
+		} catch (RuntimeException e) {
+			otherFailure = e.getClass();
+		}
+		assertEquals(treeFailure, otherFailure, operation);
+	}
+
+	@Test
+	public void randomOperationsHaveTheSameResults() {
+		for (Supplier<SortedCollectionInterface<Integer>> implementation : IMPLEMENTATIONS) {
+			SortedCollectionInterface<Integer> tree = new RedBlackTree<Integer>();
+			SortedCollectionInterface<Integer> other = implementation.get();
+			Random random = new Random(42);
+			for (int i = 0; i < 5000; ++i) {
+				int value = random.nextInt(3000);
+				if (random.nextBoolean()) {
+					assertSameOutcome("insert " + value, () -> tree.insert(value),
+							() -> other.insert(value));
+				} else {
+					assertEquals(tree.contains(value), other.contains(value), "contains " + value);
+				}
+				assertEquals(tree.size(), other.size());
+				assertEquals(tree.isEmpty(), other.isEmpty());
+				if (i % 500 == 0)
+					assertEquals(valuesOf(tree), valuesOf(other));
+			}
+			assertEquals(valuesOf(tree), valuesOf(other), other.getClass().getName());
+		}
+	}
+
+	@Test
+	public void nullReferencesAreRejected() {
+		SortedCollectionInterface<Integer> tree = new RedBlackTree<Integer>();
+		assertThrows(NullPointerException.class, () -> tree.insert(null));
+		assertThrows(NullPointerException.class, () -> tree.contains(null));
+		for (Supplier<SortedCollectionInterface<Integer>> implementation : IMPLEMENTATIONS) {
+			SortedCollectionInterface<Integer> other = implementation.get();
+			assertThrows(NullPointerException.class, () -> other.insert(null));
+			assertThrows(NullPointerException.class, () -> other.contains(null));
+		}
+	}
+
+	@Test
+	public void duplicatesAreRejected() {
+		for (Supplier<SortedCollectionInterface<Integer>> implementation : IMPLEMENTATIONS) {
+			SortedCollectionInterface<Integer> tree = new RedBlackTree<Integer>();
+			SortedCollectionInterface<Integer> other = implementation.get();
+			for (int value = 0; value < 200; ++value) {
+				tree.insert(value);
+				other.insert(value);
+			}
+			// 199 is still pending within the EytzingerTree, 0 lies within its layout
+			for (int value : new int[] { 0, 199 }) {
+				assertThrows(IllegalArgumentException.class, () -> tree.insert(value));
+				assertThrows(IllegalArgumentException.class, () -> other.insert(value));
+			}
+			assertEquals(tree.size(), other.size());
+		}
+	}
+
+	@Test
+	public void shardedIteratorsResumeWithinAShard() {
+		RedBlackTree<Integer> tree = new RedBlackTree<Integer>();
+		ShardedSortedCollection<Integer> sharded =
+				new ShardedSortedCollection<Integer>(List.of(1000, 2000), 2);
+		for (int value = 0; value < 3000; value += 2) {
+			tree.insert(value);
+			sharded.insert(value);
+		}
+		assertEquals(valuesOf(tree), valuesOf(sharded));
+		for (int[] range : new int[][] { { 0, 3000 }, { 1, 999 }, { 500, 2500 }, { 1500, 1501 } }) {
+			List<Integer> expected = new ArrayList<Integer>();
+			tree.rangeIterator(range[0], range[1]).forEachRemaining(expected::add);
+			List<Integer> actual = new ArrayList<Integer>();
+			sharded.rangeIterator(range[0], range[1]).forEachRemaining(actual::add);
+			assertEquals(expected, actual, range[0] + " to " + range[1]);
+			assertEquals(expected.size(), sharded.countInRange(range[0], range[1]));
+		}
+
+		// the last value of the first chunk is removed before the second chunk is read
+		Iterator<Integer> values = sharded.iterator();
+		List<Integer> visited = new ArrayList<Integer>();
+		for (int i = 0; i < 256; ++i)
+			visited.add(values.next());
+		sharded.remove(visited.get(255));
+		sharded.insert(visited.get(255) + 1);
+		values.forEachRemaining(visited::add);
+		tree.insert(visited.get(255) + 1);
+		assertEquals(valuesOf(tree), visited);
+	}
+
+	@Test
+	public void rejectedInsertAllChangesNoShard() {
+		ShardedSortedCollection<Integer> sharded =
+				new ShardedSortedCollection<Integer>(List.of(1000, 2000), 3);
+		sharded.insert(2500);
+		List<Integer> duplicateInLastShard = List.of(10, 1500, 2500);
+		assertThrows(IllegalArgumentException.class, () -> sharded.insertAll(duplicateInLastShard,
+				RedBlackTree.DuplicatePolicy.REJECT));
+		List<Integer> duplicateWithinTheData = List.of(10, 1500, 1500);
+		assertThrows(IllegalArgumentException.class, () -> sharded.insertAll(
+				duplicateWithinTheData, RedBlackTree.DuplicatePolicy.REJECT));
+		assertEquals(List.of(2500), valuesOf(sharded));
+
+		sharded.insertAll(List.of(10, 1500, 2500, 1500), RedBlackTree.DuplicatePolicy.KEEP_FIRST);
+		assertEquals(List.of(10, 1500, 2500), valuesOf(sharded));
+		assertThrows(IllegalArgumentException.class,
+				() -> new ShardedSortedCollection<Integer>(List.of(1000), 0));
+	}
+
+	@Test
+	public void catalogWritesArePublishedByTheNextRead() {
+		ConcurrentCatalog<Integer> catalog = new ConcurrentCatalog<Integer>();
+		RedBlackTree<Integer> before = catalog.snapshot();
+		for (int value = 0; value < 100; ++value)
+			catalog.insert(value);
+		assertTrue(catalog.remove(50));
+		assertFalse(catalog.remove(50));
+		assertTrue(before.isEmpty());
+
+		RedBlackTree<Integer> after = catalog.snapshot();
+		assertTrue(after.isFrozen());
+		assertEquals(99, after.size());
+		assertFalse(after.contains(50));
+		// reads without writes in between share a snapshot, failed writes do not publish one
+		assertThrows(IllegalArgumentException.class, () -> catalog.insert(1));
+		assertFalse(catalog.remove(50));
+		assertTrue(after == catalog.snapshot());
+
+		catalog.insert(50);
+		catalog.update(tree -> tree.remove(0));
+		assertEquals(99, catalog.size());
+		assertTrue(catalog.contains(50));
+		assertFalse(catalog.contains(0));
+	}
+
+	@Test
+	public void iteratingDoesNotChangeTheCollection() {
+		EytzingerTree<Integer> eytzinger = new EytzingerTree<Integer>();
+		for (int value = 10; value > 0; --value)
+			eytzinger.insert(value);
+		Object[] layout = eytzinger.layout;
+		assertEquals(10, eytzinger.pending.size());
+		assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), valuesOf(eytzinger));
+		assertTrue(eytzinger.layout == layout);
+		assertEquals(10, eytzinger.pending.size());
+	}
+
+	@Test
+	public void exhaustedIteratorsThrow() {
+		List<SortedCollectionInterface<Integer>> collections =
+				new ArrayList<SortedCollectionInterface<Integer>>();
+		collections.add(new RedBlackTree<Integer>());
+		for (Supplier<SortedCollectionInterface<Integer>> implementation : IMPLEMENTATIONS)
+			collections.add(implementation.get());
+		for (SortedCollectionInterface<Integer> collection : collections) {
+			collection.insert(1);
+			Iterator<Integer> values = collection.iterator();
+			assertEquals(1, values.next());
+			assertFalse(values.hasNext());
+			assertThrows(NoSuchElementException.class, values::next);
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package moviesearch.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * The application classes live in the default package, which cannot be referenced from a named
+ * package, while JMH only accepts benchmark classes within a named package. This class looks the
+ * application's constructors and methods up by name, so that the benchmarks can call them through
+ * method handles. Every reference type within the handles' types is erased to Object, so the
+ * benchmarks can invoke them with invokeExact, passing every reference argument as Object.
+ */
+final class AppClasses {
+
+    private AppClasses() {
+    }
+
+    /**
+     * This method returns a handle to a public constructor of an application class
+     *
+     * @param className - the name of the class within the default package
+     * @param parameterTypes - the parameter types of the constructor
+     * @return a handle creating new instances, with its reference types erased to Object
+     */
+    static MethodHandle constructor(String className, Class<?>... parameterTypes) {
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().findConstructor(type(className),
+                    MethodType.methodType(void.class, parameterTypes));
+            return handle.asType(handle.type().erase());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot find constructor of " + className, e);
+        }
+    }
+
+    /**
+     * This method returns a handle to a public instance method of an application class
+     *
+     * @param className - the name of the class within the default package
+     * @param methodName - the name of the method
+     * @param returnType - the return type of the method
+     * @param parameterTypes - the parameter types of the method
+     * @return a handle taking the receiver as its first argument, with its reference types erased
+     *         to Object
+     */
+    static MethodHandle virtual(String className, String methodName, Class<?> returnType,
+            Class<?>... parameterTypes) {
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().findVirtual(type(className),
+                    methodName, MethodType.methodType(returnType, parameterTypes));
+            return handle.asType(handle.type().erase());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot find method " + className + "." + methodName, e);
+        }
+    }
+
+    /**
+     * This method returns a handle to a public static method of an application class
+     *
+     * @param className - the name of the class within the default package
+     * @param methodName - the name of the method
+     * @param returnType - the return type of the method
+     * @param parameterTypes - the parameter types of the method
+     * @return a handle to the method, with its reference types erased to Object
+     */
+    static MethodHandle statik(String className, String methodName, Class<?> returnType,
+            Class<?>... parameterTypes) {
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().findStatic(type(className),
+                    methodName, MethodType.methodType(returnType, parameterTypes));
+            return handle.asType(handle.type().erase());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot find method " + className + "." + methodName, e);
+        }
+    }
+
+    /**
+     * This method returns a constant of an enum declared by an application class
+     *
+     * @param className - the binary name of the enum, e.g. MovieLoader$ReadMode
+     * @param constantName - the name of the constant
+     * @return the enum constant
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static Object enumConstant(String className, String constantName) {
+        try {
+            return Enum.valueOf((Class) type(className), constantName);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Cannot find enum " + className, e);
+        }
+    }
+
+    /**
+     * This method returns an application class
+     *
+     * @param className - the binary name of the class within the default package
+     * @return the class
+     * @throws ClassNotFoundException if there is no such class
+     */
+    static Class<?> type(String className) throws ClassNotFoundException {
+        return Class.forName(className);
+    }
+}
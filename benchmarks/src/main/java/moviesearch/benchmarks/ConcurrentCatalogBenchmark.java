@@ -0,0 +1,130 @@
+package moviesearch.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures lookups within a ConcurrentCatalog of MovieData, on their own and while a writer
+ * publishes batches of changes. Running the read benchmark with -t 1, 2, 4, ... shows how the
+ * read throughput scales with the number of threads, as readers share no locks.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConcurrentCatalogBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    @Param({ "100000" })
+    public int size;
+
+    private MethodHandle contains;
+    private MethodHandle update;
+    private Object catalog;
+    private Object[] movies;
+    private Consumer<Object> insertBatch;
+    private Consumer<Object> removeBatch;
+    private boolean batchInserted;
+
+    /**
+     * The position of a thread's next lookup, so that threads do not share a counter
+     */
+    @State(Scope.Thread)
+    public static class Lookups {
+        private int next;
+    }
+
+    @Setup
+    public void setUp() throws Throwable {
+        MethodHandle newCatalog = AppClasses.constructor("ConcurrentCatalog",
+                List.class, AppClasses.type("RedBlackTree$DuplicatePolicy"));
+        contains = AppClasses.virtual("ConcurrentCatalog", "contains", boolean.class,
+                Comparable.class);
+        update = AppClasses.virtual("ConcurrentCatalog", "update",
+                AppClasses.type("RedBlackTree"), Consumer.class);
+        MethodHandle treeInsert = AppClasses.virtual("RedBlackTree", "insert", boolean.class,
+                Comparable.class);
+        MethodHandle treeRemove = AppClasses.virtual("RedBlackTree", "remove", boolean.class,
+                Comparable.class);
+
+        movies = SyntheticMovies.movies(size + BATCH_SIZE, 42);
+        // the last movies are inserted and removed again by the writer
+        Object[] batch = Arrays.copyOfRange(movies, size, size + BATCH_SIZE);
+        catalog = (Object) newCatalog.invokeExact((Object) Arrays.asList(movies).subList(0, size),
+                AppClasses.enumConstant("RedBlackTree$DuplicatePolicy", "REJECT"));
+        insertBatch = tree -> {
+            try {
+                for (Object movie : batch) {
+                    boolean inserted = (boolean) treeInsert.invokeExact(tree, movie);
+                }
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        removeBatch = tree -> {
+            try {
+                for (Object movie : batch) {
+                    boolean removed = (boolean) treeRemove.invokeExact(tree, movie);
+                }
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    private boolean lookUp(Lookups lookups) throws Throwable {
+        Object movie = movies[lookups.next];
+        lookups.next = lookups.next + 1 == size ? 0 : lookups.next + 1;
+        return (boolean) contains.invokeExact(catalog, movie);
+    }
+
+    /**
+     * One operation looks up a single movie
+     */
+    @Benchmark
+    public boolean read(Lookups lookups) throws Throwable {
+        return lookUp(lookups);
+    }
+
+    /**
+     * One operation looks up a single movie while the writer of the group publishes changes
+     */
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(3)
+    public boolean reader(Lookups lookups) throws Throwable {
+        return lookUp(lookups);
+    }
+
+    /**
+     * One operation publishes a batch inserting or removing BATCH_SIZE movies
+     */
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(1)
+    public Object writer() throws Throwable {
+        batchInserted = !batchInserted;
+        return (Object) update.invokeExact(catalog,
+                (Object) (batchInserted ? insertBatch : removeBatch));
+    }
+}
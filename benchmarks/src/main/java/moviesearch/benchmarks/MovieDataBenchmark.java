@@ -0,0 +1,65 @@
+package moviesearch.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of MovieData.compareTo, which every tree operation performs O(log n) times.
+ * Pairs with different ratings are decided by the rating alone, pairs with the same rating fall
+ * through to comparing the titles.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MovieDataBenchmark {
+
+    private static final int PAIRS = 1024; // power of two, so that indices can be masked
+
+    @Param({ "differentRating", "sameRating" })
+    public String pairs;
+
+    private Comparable<Object>[] left;
+    private Object[] right;
+    private int next;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        Random random = new Random(42);
+        left = new Comparable[PAIRS];
+        right = new Object[PAIRS];
+        for (int i = 0; i < PAIRS; ++i) {
+            double rating = SyntheticMovies.rating(random);
+            double otherRating = pairs.equals("sameRating") ? rating : rating + 0.1;
+            // titles share a long prefix, like the titles of a series do
+            left[i] = (Comparable<Object>) SyntheticMovies.movie("The Movie Part " + i, rating,
+                    2020, "Drama");
+            right[i] = SyntheticMovies.movie("The Movie Part " + (i + 1), otherRating, 2020,
+                    "Drama");
+        }
+    }
+
+    /**
+     * One operation compares a single pair of movies
+     */
+    @Benchmark
+    public int compareTo() {
+        int i = next++ & (PAIRS - 1);
+        return left[i].compareTo(right[i]);
+    }
+}
@@ -0,0 +1,104 @@
+package moviesearch.benchmarks;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how fast MovieLoader parses CSV files in each of its read modes: the bundled
+ * NetflixOriginals.csv and synthetic files of the same layout with up to 10 million rows. The
+ * largest dataset needs a heap of several gigabytes, e.g. -jvmArgsAppend -Xmx8g.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MovieLoaderBenchmark {
+
+    /**
+     * directory holding NetflixOriginals.csv, relative to the directory JMH is started from
+     */
+    private static final String DATA_DIRECTORY = System.getProperty("moviesearch.dataDirectory",
+            "MovieSearchApp");
+
+    private static final String READ_MODE = "MovieLoader$ReadMode";
+
+    private static final MethodHandle NEW_LOADER;
+
+    static {
+        try {
+            NEW_LOADER = AppClasses.constructor("MovieLoader", AppClasses.type(READ_MODE),
+                    int.class);
+        } catch (ClassNotFoundException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+    private static final MethodHandle LOAD_FILE = AppClasses.virtual("MovieLoader", "loadFile",
+            List.class, String.class);
+
+    /**
+     * either NetflixOriginals.csv or the number of rows of a synthetic file
+     */
+    @Param({ "NetflixOriginals.csv", "100000", "1000000", "10000000" })
+    public String dataset;
+
+    @Param({ "STREAMING", "MEMORY_MAPPED" })
+    public String readMode;
+
+    /**
+     * number of threads splitting a file, only used by the MEMORY_MAPPED mode
+     */
+    @Param({ "1", "4" })
+    public int parallelism;
+
+    private Object loader;
+    private String csvFilePath;
+    private Path syntheticFile;
+
+    @Setup
+    public void setUp() throws Throwable {
+        loader = (Object) NEW_LOADER.invokeExact(AppClasses.enumConstant(READ_MODE, readMode),
+                parallelism);
+        if (dataset.endsWith(".csv")) {
+            csvFilePath = Paths.get(DATA_DIRECTORY, dataset).toAbsolutePath().toString();
+        } else {
+            syntheticFile = Files.createTempFile("movies-" + dataset + "-", ".csv");
+            SyntheticMovies.writeCsv(syntheticFile, Integer.parseInt(dataset), 42);
+            csvFilePath = syntheticFile.toString();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (syntheticFile != null) {
+            Files.deleteIfExists(syntheticFile);
+        }
+    }
+
+    /**
+     * One operation parses the whole file into a list of movies
+     */
+    @Benchmark
+    public Object loadFile() throws Throwable {
+        return (Object) LOAD_FILE.invokeExact(loader, (Object) csvFilePath);
+    }
+}
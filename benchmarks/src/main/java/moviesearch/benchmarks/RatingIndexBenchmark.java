@@ -0,0 +1,120 @@
+package moviesearch.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the off-heap RatingIndex against a RedBlackTree of MovieData when both are used as a
+ * rating index: inserting every movie, and looking up a single movie. The index is keyed by the
+ * movie's rating and its position within the generated movies.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RatingIndexBenchmark {
+
+    @Param({ "100000", "1000000" })
+    public int size;
+
+    private MethodHandle newTree;
+    private MethodHandle treeInsert;
+    private MethodHandle treeContains;
+    private MethodHandle newIndex;
+    private MethodHandle indexInsert;
+    private MethodHandle indexContains;
+    private Object[] movies;
+    private long[] keys;
+    private Object tree;
+    private Object index;
+    private int nextLookup;
+
+    @Setup
+    public void setUp() throws Throwable {
+        newTree = AppClasses.constructor("RedBlackTree");
+        treeInsert = AppClasses.virtual("RedBlackTree", "insert", boolean.class, Comparable.class);
+        treeContains = AppClasses.virtual("RedBlackTree", "contains", boolean.class,
+                Comparable.class);
+        newIndex = AppClasses.constructor("RatingIndex");
+        indexInsert = AppClasses.virtual("RatingIndex", "insert", boolean.class, long.class);
+        indexContains = AppClasses.virtual("RatingIndex", "contains", boolean.class, long.class);
+        MethodHandle getRating = AppClasses.virtual("MovieData", "getRating", double.class);
+        MethodHandle key = AppClasses.statik("RatingIndex", "key", long.class, double.class,
+                int.class);
+
+        movies = SyntheticMovies.movies(size, 42);
+        keys = new long[size];
+        for (int i = 0; i < size; ++i) {
+            double rating = (double) getRating.invokeExact(movies[i]);
+            keys[i] = (long) key.invokeExact(rating, i);
+        }
+        tree = fillTree();
+        index = fillIndex();
+    }
+
+    private Object fillTree() throws Throwable {
+        Object filledTree = (Object) newTree.invokeExact();
+        for (Object movie : movies) {
+            boolean inserted = (boolean) treeInsert.invokeExact(filledTree, movie);
+        }
+        return filledTree;
+    }
+
+    private Object fillIndex() throws Throwable {
+        Object filledIndex = (Object) newIndex.invokeExact();
+        for (long movieKey : keys) {
+            boolean inserted = (boolean) indexInsert.invokeExact(filledIndex, movieKey);
+        }
+        return filledIndex;
+    }
+
+    /**
+     * One operation inserts all movies into an empty tree
+     */
+    @Benchmark
+    public Object treeInsertAll() throws Throwable {
+        return fillTree();
+    }
+
+    /**
+     * One operation inserts the keys of all movies into an empty index
+     */
+    @Benchmark
+    public Object indexInsertAll() throws Throwable {
+        return fillIndex();
+    }
+
+    /**
+     * One operation looks up a single movie within the tree
+     */
+    @Benchmark
+    public boolean treeContains() throws Throwable {
+        Object movie = movies[nextLookup];
+        nextLookup = nextLookup + 1 == movies.length ? 0 : nextLookup + 1;
+        return (boolean) treeContains.invokeExact(tree, movie);
+    }
+
+    /**
+     * One operation looks up the key of a single movie within the index
+     */
+    @Benchmark
+    public boolean indexContains() throws Throwable {
+        long movieKey = keys[nextLookup];
+        nextLookup = nextLookup + 1 == keys.length ? 0 : nextLookup + 1;
+        return (boolean) indexContains.invokeExact(index, movieKey);
+    }
+}
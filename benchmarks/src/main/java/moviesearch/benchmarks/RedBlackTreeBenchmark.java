@@ -0,0 +1,91 @@
+package moviesearch.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares insert, contains and full iteration of the RedBlackTree against the frozen
+ * BaselineRedBlackTree, which still uses recursion and a java.util.Stack based iterator, and
+ * against the array-based EytzingerTree. All collections are called through the same kind of
+ * method handle, so the call overhead is identical.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RedBlackTreeBenchmark {
+
+    @Param({ "RedBlackTree", "BaselineRedBlackTree", "EytzingerTree" })
+    public String implementation;
+
+    @Param({ "100000" })
+    public int size;
+
+    private MethodHandle newTree;
+    private MethodHandle insert;
+    private MethodHandle contains;
+    private Object[] movies;
+    private Object tree;
+    private int nextLookup;
+
+    @Setup
+    public void setUp() throws Throwable {
+        newTree = AppClasses.constructor(implementation);
+        insert = AppClasses.virtual(implementation, "insert", boolean.class, Comparable.class);
+        contains = AppClasses.virtual(implementation, "contains", boolean.class,
+                Comparable.class);
+        movies = SyntheticMovies.movies(size, 42);
+        tree = fill();
+    }
+
+    private Object fill() throws Throwable {
+        Object filledTree = (Object) newTree.invokeExact();
+        for (Object movie : movies) {
+            boolean inserted = (boolean) insert.invokeExact(filledTree, movie);
+        }
+        return filledTree;
+    }
+
+    /**
+     * One operation inserts all movies into an empty tree
+     */
+    @Benchmark
+    public Object insertAll() throws Throwable {
+        return fill();
+    }
+
+    /**
+     * One operation looks up a single movie that is stored within the tree
+     */
+    @Benchmark
+    public boolean contains() throws Throwable {
+        Object movie = movies[nextLookup];
+        nextLookup = nextLookup + 1 == movies.length ? 0 : nextLookup + 1;
+        return (boolean) contains.invokeExact(tree, movie);
+    }
+
+    /**
+     * One operation iterates over every movie of the tree in sorted order
+     */
+    @Benchmark
+    public void iterate(Blackhole blackhole) {
+        for (Object movie : (Iterable<?>) tree) {
+            blackhole.consume(movie);
+        }
+    }
+}
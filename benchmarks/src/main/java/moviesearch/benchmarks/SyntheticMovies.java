@@ -0,0 +1,104 @@
+package moviesearch.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Generates MovieData instances and CSV files with IMDB-like ratings for the benchmarks
+ */
+final class SyntheticMovies {
+
+    private static final MethodHandle NEW_MOVIE = AppClasses.constructor("MovieData",
+            String.class, double.class, int.class, String.class);
+
+    static final String[] GENRES = { "Documentary", "Drama", "Comedy", "Thriller",
+            "Romantic comedy", "Science fiction/Drama", "Horror thriller", "Action/Comedy",
+            "Animation", "Crime drama" };
+
+    private static final String[] MONTHS = { "January", "February", "March", "April", "May",
+            "June", "July", "August", "September", "October", "November", "December" };
+
+    private static final String[] LANGUAGES = { "English", "Spanish", "Hindi", "French",
+            "English/Japanese", "Korean", "German", "Italian" };
+
+    private SyntheticMovies() {
+    }
+
+    /**
+     * This method creates the passed number of distinct movies in random order. Ratings have one
+     * decimal between 1.0 and 9.9, like IMDB scores, so many movies share a rating and are only
+     * told apart by their title.
+     *
+     * @param count - the number of movies to create
+     * @param seed - the seed of the random generator, so that runs are repeatable
+     * @return the movies as MovieData instances
+     */
+    static Object[] movies(int count, long seed) {
+        Random random = new Random(seed);
+        Object[] movies = new Object[count];
+        for (int i = 0; i < count; ++i) {
+            movies[i] = movie("Movie " + Integer.toString(random.nextInt(), 36) + " #" + i,
+                    rating(random), 1990 + random.nextInt(35), GENRES[random.nextInt(GENRES.length)]);
+        }
+        return movies;
+    }
+
+    /**
+     * This method creates a single MovieData instance
+     *
+     * @return the movie as a MovieData instance
+     */
+    static Object movie(String title, double rating, int year, String genre) {
+        try {
+            return (Object) NEW_MOVIE.invokeExact((Object) title, rating, year, (Object) genre);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return a random rating with one decimal between 1.0 and 9.9
+     */
+    static double rating(Random random) {
+        return (10 + random.nextInt(90)) / 10.0;
+    }
+
+    /**
+     * This method writes a CSV file in the layout of NetflixOriginals.csv: the same header, CRLF
+     * line endings, a quoted premiere date containing a comma, and every twentieth title quoted
+     * because it contains a comma as well.
+     *
+     * @param csvFile - the file to be written
+     * @param rows - the number of movie rows to write
+     * @param seed - the seed of the random generator, so that runs are repeatable
+     * @throws IOException if the file cannot be written
+     */
+    static void writeCsv(Path csvFile, int rows, long seed) throws IOException {
+        Random random = new Random(seed);
+        try (BufferedWriter writer = Files.newBufferedWriter(csvFile, StandardCharsets.UTF_8)) {
+            writer.write("Title,Genre,Premiere,Runtime,IMDB Score,Language\r\n");
+            for (int i = 0; i < rows; ++i) {
+                if (i % 20 == 0) {
+                    writer.write("\"Movie " + i + ", The Sequel\"");
+                } else {
+                    writer.write("Movie " + Integer.toString(random.nextInt(), 36) + " #" + i);
+                }
+                writer.write(',');
+                writer.write(GENRES[random.nextInt(GENRES.length)]);
+                writer.write(",\"" + MONTHS[random.nextInt(12)] + " " + (1 + random.nextInt(28))
+                        + ", " + (1990 + random.nextInt(35)) + "\",");
+                writer.write(Integer.toString(60 + random.nextInt(120)));
+                writer.write(',');
+                writer.write(Double.toString(rating(random)));
+                writer.write(',');
+                writer.write(LANGUAGES[random.nextInt(LANGUAGES.length)]);
+                writer.write("\r\n");
+            }
+        }
+    }
+}